@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.benchmark;
+
+import com.google.gson.Gson;
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * decode one record of every shape and size, Gson as baseline
+ */
+@State(Scope.Benchmark)
+public class DeserializeBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    @Param({ "PRIMITIVE", "STRING", "NESTED", "COLLECTION", "TAIL" })
+    Models.Shape shape;
+
+    @Param({ "16", "256", "4096" })
+    int size;
+
+    private Class<? extends TairaData> clazz;
+
+    private byte[] bytes;
+
+    private ByteBuffer buffer;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        TairaData data = shape.create(size);
+        clazz = data.getClass();
+        bytes = Taira.DEFAULT.toBytes(data);
+        buffer = ByteBuffer.wrap(bytes);
+        json = GSON.toJson(data);
+    }
+
+    @Benchmark
+    public TairaData fromBytes() {
+        return Taira.DEFAULT.fromBytes(bytes, clazz);
+    }
+
+    @Benchmark
+    public TairaData fromByteBuffer() {
+        buffer.clear();
+        return Taira.DEFAULT.fromByteBuffer(buffer, clazz);
+    }
+
+    @Benchmark
+    public TairaData gsonFromJson() {
+        return GSON.fromJson(json, clazz);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.benchmark;
+
+import com.gotokeep.keep.taira.TairaData;
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * payload shapes measured by the benchmarks
+ *
+ * [size] only grows the shapes ending with a variable-size tail field, fixed-size shapes ignore it
+ */
+final class Models {
+
+    private Models() {}
+
+    enum Shape {
+
+        PRIMITIVE {
+            @Override
+            TairaData create(int size) {
+                return Primitives.create(1);
+            }
+        },
+
+        STRING {
+            @Override
+            TairaData create(int size) {
+                Strings strings = new Strings();
+                strings.name = "Taira";
+                strings.city = "Beijing";
+                strings.device = "Keep B2";
+                strings.label = "treadmill";
+                strings.remains = text(size);
+                return strings;
+            }
+        },
+
+        NESTED {
+            @Override
+            TairaData create(int size) {
+                Nested nested = new Nested();
+                nested.id = 42;
+                nested.middle = Middle.create(1);
+                nested.points = new Point[4];
+                for (int i = 0; i < nested.points.length; i++) {
+                    nested.points[i] = new Point();
+                    nested.points[i].x = i;
+                    nested.points[i].y = -i;
+                }
+                nested.checksum = 0x5A5A;
+                return nested;
+            }
+        },
+
+        COLLECTION {
+            @Override
+            TairaData create(int size) {
+                Records records = new Records();
+                records.sessionId = 1500000000000L;
+                records.items = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    records.items.add(Primitives.create(i));
+                }
+                return records;
+            }
+        },
+
+        TAIL {
+            @Override
+            TairaData create(int size) {
+                Tail tail = new Tail();
+                tail.type = 3;
+                tail.timestamp = 1500000000000L;
+                tail.payload = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    tail.payload[i] = (byte) i;
+                }
+                return tail;
+            }
+        };
+
+        abstract TairaData create(int size);
+    }
+
+    private static String text(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.toString();
+    }
+
+    public static class Primitives implements TairaData {
+
+        @ParamField(order = 0) boolean flag;
+
+        @ParamField(order = 1) byte accuracy;
+
+        @ParamField(order = 2) char unit;
+
+        @ParamField(order = 3) short steps;
+
+        @ParamField(order = 4) int heartRate;
+
+        @ParamField(order = 5, bytes = 3) int distance;
+
+        @ParamField(order = 6) long timestamp;
+
+        @ParamField(order = 7) float speed;
+
+        @ParamField(order = 8) double calories;
+
+        public Primitives() {}
+
+        static Primitives create(int seed) {
+            Primitives primitives = new Primitives();
+            primitives.flag = seed % 2 == 0;
+            primitives.accuracy = (byte) (seed % 4);
+            primitives.unit = 'k';
+            primitives.steps = (short) (seed % 30000);
+            primitives.heartRate = 60 + seed % 120;
+            primitives.distance = seed * 7 % 1000000;
+            primitives.timestamp = 1500000000000L + seed;
+            primitives.speed = seed * 0.25f;
+            primitives.calories = seed * 1.5;
+            return primitives;
+        }
+    }
+
+    public static class Strings implements TairaData {
+
+        @ParamField(order = 0, bytes = 32) String name;
+
+        @ParamField(order = 1, bytes = 32) String city;
+
+        @ParamField(order = 2, bytes = 16) String device;
+
+        @ParamField(order = 3, prefix = 1) String label;
+
+        @ParamField(order = 4) String remains;
+
+        public Strings() {}
+    }
+
+    public static class Leaf implements TairaData {
+
+        @ParamField(order = 0) int value;
+
+        @ParamField(order = 1) float weight;
+
+        public Leaf() {}
+    }
+
+    public static class Middle implements TairaData {
+
+        @ParamField(order = 0) short index;
+
+        @ParamField(order = 1) Leaf leaf;
+
+        @ParamField(order = 2) long updated;
+
+        public Middle() {}
+
+        static Middle create(int seed) {
+            Middle middle = new Middle();
+            middle.index = (short) seed;
+            middle.leaf = new Leaf();
+            middle.leaf.value = seed;
+            middle.leaf.weight = seed * 0.5f;
+            middle.updated = 1500000000000L + seed;
+            return middle;
+        }
+    }
+
+    public static class Point implements TairaData {
+
+        @ParamField(order = 0) int x;
+
+        @ParamField(order = 1) int y;
+
+        public Point() {}
+    }
+
+    public static class Nested implements TairaData {
+
+        @ParamField(order = 0) int id;
+
+        @ParamField(order = 1) Middle middle;
+
+        @ParamField(order = 2, length = 4) Point[] points;
+
+        @ParamField(order = 3) short checksum;
+
+        public Nested() {}
+    }
+
+    public static class Records implements TairaData {
+
+        @ParamField(order = 0) long sessionId;
+
+        @ParamField(order = 1) List<Primitives> items;
+
+        public Records() {}
+    }
+
+    public static class Tail implements TairaData {
+
+        @ParamField(order = 0) byte type;
+
+        @ParamField(order = 1) long timestamp;
+
+        @ParamField(order = 2) byte[] payload;
+
+        public Tail() {}
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.benchmark;
+
+import com.google.gson.Gson;
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * encode one record of every shape and size, Gson as baseline
+ */
+@State(Scope.Benchmark)
+public class SerializeBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    @Param({ "PRIMITIVE", "STRING", "NESTED", "COLLECTION", "TAIL" })
+    Models.Shape shape;
+
+    @Param({ "16", "256", "4096" })
+    int size;
+
+    private TairaData data;
+
+    private ByteBuffer target;
+
+    @Setup
+    public void setUp() {
+        data = shape.create(size);
+        target = ByteBuffer.allocate(Taira.DEFAULT.toBytes(data).length);
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return Taira.DEFAULT.toBytes(data);
+    }
+
+    @Benchmark
+    public ByteBuffer toByteBuffer() {
+        return Taira.DEFAULT.toByteBuffer(data);
+    }
+
+    /**
+     * reuses one target buffer, no output allocation
+     */
+    @Benchmark
+    public int toBytesInto() {
+        target.clear();
+        return Taira.DEFAULT.toBytes(data, target);
+    }
+
+    @Benchmark
+    public String gsonToJson() {
+        return GSON.toJson(data);
+    }
+}
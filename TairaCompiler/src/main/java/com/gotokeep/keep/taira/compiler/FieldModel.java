@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.compiler;
+
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * a @ParamField field resolved for code generation
+ */
+class FieldModel {
+
+    enum Kind {
+        PRIMITIVE, STRING, BYTES, TAIRA, COLLECTION, ARRAY, PRIMITIVE_ARRAY
+    }
+
+    final VariableElement element;
+
+    final String name;
+
+    final Kind kind;
+
+    final int order;
+
+    final int bytes;
+
+    final int length;
+
+    /**
+     * [bits] of packed field, 0 if not packed
+     */
+    final int bits;
+
+    /**
+     * integer encoding of field or collection members
+     */
+    final ParamField.Encoding encoding;
+
+    /**
+     * length prefix byte size, 0 if not prefixed
+     */
+    final int prefix;
+
+    /**
+     * bit offset of packed field in its group
+     */
+    int bitOffset;
+
+    /**
+     * bytes of bit group on its first member, 0 on other fields
+     */
+    int bitGroupBytes;
+
+    /**
+     * whether last member of its bit group
+     */
+    boolean bitGroupEnd;
+
+    /**
+     * field type in source form
+     */
+    final String typeName;
+
+    /**
+     * primitive type of field, or of member for COLLECTION/ARRAY/PRIMITIVE_ARRAY
+     */
+    PrimitiveType primitive;
+
+    /**
+     * whether primitive field or member is declared boxed
+     */
+    boolean boxed;
+
+    /**
+     * TairaData type of field, or of member for COLLECTION/ARRAY
+     */
+    TypeElement tairaType;
+
+    /**
+     * member type in source form for COLLECTION/ARRAY
+     */
+    String memberTypeName;
+
+    /**
+     * whether collection is a Set, otherwise a List
+     */
+    boolean isSet;
+
+    /**
+     * getter method name, null for direct field access
+     */
+    String getter;
+
+    /**
+     * setter method name, null for direct field access
+     */
+    String setter;
+
+    FieldModel(VariableElement element, Kind kind, int order, int bytes, int length, int bits,
+               ParamField.Encoding encoding, int prefix, TypeMirror type) {
+        this.element = element;
+        this.name = element.getSimpleName().toString();
+        this.kind = kind;
+        this.order = order;
+        this.bytes = bytes;
+        this.length = length;
+        this.bits = bits;
+        this.encoding = encoding;
+        this.prefix = prefix;
+        this.typeName = type.toString();
+    }
+
+    /**
+     * expression reading current field from target
+     */
+    String readExpression(String target) {
+        return getter == null ? target + "." + name : target + "." + getter + "()";
+    }
+
+    /**
+     * statement writing current field into target
+     */
+    String writeStatement(String target, String valueExpression) {
+        return setter == null ? target + "." + name + " = " + valueExpression + ";"
+            : target + "." + setter + "(" + valueExpression + ");";
+    }
+
+    /**
+     * bits taken in bit group, [length] for bitset
+     */
+    int bitCount() {
+        return kind == Kind.PRIMITIVE ? bits : length;
+    }
+
+    /**
+     * varint encoded field or collection members
+     */
+    boolean isVarInt() {
+        return encoding != ParamField.Encoding.FIXED;
+    }
+
+    /**
+     * String, byte[] or collection written after a length prefix
+     */
+    boolean isPrefixed() {
+        return prefix > 0;
+    }
+
+    /**
+     * tail field without [bytes] or [length] or length prefix
+     */
+    boolean isTail() {
+        if (isPrefixed()) {
+            return false;
+        }
+        if (kind == Kind.STRING || kind == Kind.BYTES) {
+            return bytes <= 0;
+        }
+        if (kind == Kind.COLLECTION || kind == Kind.ARRAY || kind == Kind.PRIMITIVE_ARRAY) {
+            return length <= 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.compiler;
+
+/**
+ * Taira primitive types, mirrors TairaPrimitive at compile time
+ */
+enum PrimitiveType {
+
+    BOOLEAN("boolean", "java.lang.Boolean", "Boolean", 1, "false"),
+    BYTE("byte", "java.lang.Byte", "Byte", 1, "(byte) 0"),
+    CHAR("char", "java.lang.Character", "Char", 2, "'\\u0000'"),
+    SHORT("short", "java.lang.Short", "Short", 2, "(short) 0"),
+    INT("int", "java.lang.Integer", "Int", 4, "0"),
+    FLOAT("float", "java.lang.Float", "Float", 4, "0f"),
+    DOUBLE("double", "java.lang.Double", "Double", 8, "0d"),
+    LONG("long", "java.lang.Long", "Long", 8, "0L");
+
+    /**
+     * primitive type name
+     */
+    final String primitiveName;
+
+    /**
+     * boxed type qualified name
+     */
+    final String boxedName;
+
+    /**
+     * TairaCodec read/write method suffix
+     */
+    final String codecName;
+
+    /**
+     * primitive byte size
+     */
+    final int byteSize;
+
+    /**
+     * default value literal
+     */
+    final String defaultValue;
+
+    PrimitiveType(String primitiveName, String boxedName, String codecName, int byteSize, String defaultValue) {
+        this.primitiveName = primitiveName;
+        this.boxedName = boxedName;
+        this.codecName = codecName;
+        this.byteSize = byteSize;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * get primitive type by primitive or boxed type name
+     *
+     * @return primitive type, null if not primitive
+     */
+    static PrimitiveType find(String typeName) {
+        for (PrimitiveType type : values()) {
+            if (type.primitiveName.equals(typeName) || type.boxedName.equals(typeName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * byte size used for serialize/deserialize, same rule as PrimitiveNode
+     */
+    int evaluateSize(int annotationBytes) {
+        if (annotationBytes <= 0 || byteSize <= 1 || byteSize == annotationBytes) {
+            return byteSize;
+        }
+        return annotationBytes;
+    }
+}
@@ -0,0 +1,553 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.compiler;
+
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * write straight-line serializer source for one TairaData class
+ *
+ * every field is encoded through TairaCodec, which shares its implementation with the node tree
+ */
+class SerializerGenerator {
+
+    private static final String INDENT = "    ";
+
+    private final TairaProcessor processor;
+
+    private final TypeElement clazz;
+
+    private final String className;
+
+    private final String packageName;
+
+    private final String serializerName;
+
+    private final List<FieldModel> fields;
+
+    /**
+     * nested TairaData type to serializer constant name
+     */
+    private final Map<TypeElement, String> nestedSerializers = new LinkedHashMap<>();
+
+    private final StringBuilder code = new StringBuilder();
+
+    SerializerGenerator(TairaProcessor processor, TypeElement clazz, String packageName, String serializerName) {
+        this.processor = processor;
+        this.clazz = clazz;
+        this.className = clazz.getQualifiedName().toString();
+        this.packageName = packageName;
+        this.serializerName = serializerName;
+        this.fields = processor.getFieldModels(clazz);
+        for (FieldModel field : fields) {
+            if (field.tairaType != null && !nestedSerializers.containsKey(field.tairaType)) {
+                String constant = toConstantName(field.tairaType.getSimpleName().toString()) + "_SERIALIZER";
+                if (nestedSerializers.containsValue(constant)) {
+                    constant += "_" + nestedSerializers.size();
+                }
+                nestedSerializers.put(field.tairaType, constant);
+            }
+        }
+    }
+
+    String generate() {
+        line(0, "// Generated code from Taira. Do not modify!");
+        if (!packageName.isEmpty()) {
+            line(0, "package " + packageName + ";");
+        }
+        line(0, "");
+        line(0, "import com.gotokeep.keep.taira.TairaCodec;");
+        line(0, "import com.gotokeep.keep.taira.TairaSerializer;");
+        line(0, "");
+        line(0, "import java.nio.ByteBuffer;");
+        line(0, "import java.nio.charset.Charset;");
+        line(0, "");
+        line(0, "public final class " + serializerName + " implements TairaSerializer<" + className + "> {");
+        line(0, "");
+        line(1, "private static final int FIXED_SIZE = " + processor.getFixedSize(clazz) + ";");
+        for (Map.Entry<TypeElement, String> entry : nestedSerializers.entrySet()) {
+            String nestedSerializer = processor.getSerializerQualifiedName(entry.getKey());
+            line(0, "");
+            line(1, "private static final " + nestedSerializer + " " + entry.getValue() + " = new " + nestedSerializer
+                + "();");
+        }
+        line(0, "");
+        writeEvaluateSize();
+        line(0, "");
+        writeSerialize();
+        line(0, "");
+        writeDeserialize();
+        line(0, "}");
+        return code.toString();
+    }
+
+    private void writeEvaluateSize() {
+        line(1, "@Override");
+        line(1, "public int evaluateSize(" + className + " value, Charset charset) {");
+        line(2, "if (value == null) {");
+        line(3, "return FIXED_SIZE;");
+        line(2, "}");
+        line(2, "int size = FIXED_SIZE;");
+        for (FieldModel field : fields) {
+            if (field.kind == FieldModel.Kind.TAIRA && processor.isVariableSize(field.tairaType)) {
+                // nested size beyond its smallest size counted in FIXED_SIZE
+                line(2, "size += " + nestedSerializers.get(field.tairaType) + ".evaluateSize("
+                    + field.readExpression("value") + ", charset) - " + processor.getFixedSize(field.tairaType) + ";");
+                continue;
+            }
+            if (field.kind != FieldModel.Kind.TAIRA && processor.hasVariableMember(field)) {
+                writeVariableSize(field);
+                continue;
+            }
+            if (!field.isTail() && !field.isPrefixed()) {
+                continue;
+            }
+            // content of tail or prefixed field
+            String read = field.readExpression("value");
+            switch (field.kind) {
+                case STRING:
+                    line(2, "size += TairaCodec.sizeOf(" + read + ", 0, charset);");
+                    break;
+                case BYTES:
+                    line(2, "size += TairaCodec.sizeOf(" + read + ", 0);");
+                    break;
+                default:
+                    line(2, "{");
+                    line(3, field.typeName + " fieldValue = " + read + ";");
+                    line(3, "size += (fieldValue == null ? 0 : fieldValue." + countOf(field) + ") * "
+                        + processor.getMemberSize(field) + ";");
+                    line(2, "}");
+                    break;
+            }
+        }
+        line(2, "return size;");
+        line(1, "}");
+    }
+
+    /**
+     * size of varint field or variable-size members beyond the smallest size counted in FIXED_SIZE
+     */
+    private void writeVariableSize(FieldModel field) {
+        String read = field.readExpression("value");
+        if (field.kind == FieldModel.Kind.PRIMITIVE) {
+            if (field.boxed) {
+                line(2, "{");
+                line(3, field.typeName + " fieldValue = " + read + ";");
+                line(3, "size += " + sizeOfVarInt(field, "fieldValue == null ? " + field.primitive.defaultValue
+                    + " : fieldValue") + " - 1;");
+                line(2, "}");
+            } else {
+                line(2, "size += " + sizeOfVarInt(field, read) + " - 1;");
+            }
+            return;
+        }
+        String memberSize;
+        if (field.primitive == null) {
+            memberSize = nestedSerializers.get(field.tairaType) + ".evaluateSize(member, charset)";
+        } else {
+            memberSize = sizeOfVarInt(field, field.boxed ? "member == null ? " + field.primitive.defaultValue
+                + " : member" : "member");
+        }
+        line(2, "{");
+        line(3, field.typeName + " fieldValue = " + read + ";");
+        line(3, "if (fieldValue != null) {");
+        line(4, "for (" + field.memberTypeName + " member : fieldValue) {");
+        // members of tail or prefixed field are not counted in FIXED_SIZE
+        line(5, "size += " + memberSize + (field.isTail() || field.isPrefixed() ? ";"
+            : " - " + processor.getMemberSize(field) + ";"));
+        line(4, "}");
+        line(3, "}");
+        line(2, "}");
+    }
+
+    private void writeSerialize() {
+        line(1, "@Override");
+        line(1, "public void serialize(ByteBuffer buffer, " + className + " value, Charset charset) {");
+        line(2, "if (value == null) {");
+        line(3, "TairaCodec.pad(buffer, evaluateSize(null, charset));");
+        line(3, "return;");
+        line(2, "}");
+        for (FieldModel field : fields) {
+            if (field.bits > 0) {
+                writeBitMember(field);
+                continue;
+            }
+            String read = field.readExpression("value");
+            switch (field.kind) {
+                case PRIMITIVE:
+                    if (field.boxed) {
+                        line(2, "{");
+                        line(3, field.typeName + " fieldValue = " + read + ";");
+                        line(3, writeValue(field, "fieldValue == null ? " + field.primitive.defaultValue
+                            + " : fieldValue", field.primitive.evaluateSize(field.bytes)));
+                        line(2, "}");
+                    } else {
+                        line(2, writeValue(field, read, field.primitive.evaluateSize(field.bytes)));
+                    }
+                    break;
+                case STRING:
+                    if (field.isPrefixed()) {
+                        line(2, "TairaCodec.writePrefixedString(buffer, " + read + ", " + field.prefix + ", "
+                            + field.bytes + ", charset, \"" + field.name + "\");");
+                    } else {
+                        line(2, "TairaCodec.writeString(buffer, " + read + ", " + field.bytes + ", charset, \""
+                            + field.name + "\");");
+                    }
+                    break;
+                case BYTES:
+                    if (field.isPrefixed()) {
+                        line(2, "TairaCodec.writePrefixedBytes(buffer, " + read + ", " + field.prefix + ", "
+                            + field.bytes + ", \"" + field.name + "\");");
+                    } else {
+                        line(2, "TairaCodec.writeBytes(buffer, " + read + ", " + field.bytes + ", \"" + field.name
+                            + "\");");
+                    }
+                    break;
+                case TAIRA:
+                    line(2, nestedSerializers.get(field.tairaType) + ".serialize(buffer, " + read + ", charset);");
+                    break;
+                case PRIMITIVE_ARRAY:
+                    if (field.isPrefixed()) {
+                        // members follow the prefix without padding
+                        line(2, "{");
+                        line(3, field.typeName + " fieldValue = " + read + ";");
+                        line(3, "int count = fieldValue == null ? 0 : fieldValue.length;");
+                        writeLengthPrefix(field);
+                        line(3, "TairaCodec.write" + field.primitive.codecName + "s(buffer, fieldValue, 0"
+                            + memberBytesArgument(field) + ", \"" + field.name + "\");");
+                        line(2, "}");
+                    } else {
+                        line(2, "TairaCodec.write" + field.primitive.codecName + "s(buffer, " + read + ", "
+                            + field.length + memberBytesArgument(field) + ", \"" + field.name + "\");");
+                    }
+                    break;
+                default:
+                    line(2, "{");
+                    line(3, field.typeName + " fieldValue = " + read + ";");
+                    line(3, "int count = fieldValue == null ? 0 : fieldValue." + countOf(field) + ";");
+                    if (field.isPrefixed()) {
+                        writeLengthPrefix(field);
+                    } else if (field.length > 0) {
+                        line(3, "TairaCodec.checkLength(count, " + field.length + ", \"" + field.name + "\");");
+                    }
+                    line(3, "if (fieldValue != null) {");
+                    line(4, "for (" + field.memberTypeName + " member : fieldValue) {");
+                    line(5, writeMember(field, "member"));
+                    line(4, "}");
+                    line(3, "}");
+                    if (field.length > 0 && !field.isPrefixed()) {
+                        line(3, "TairaCodec.pad(buffer, (" + field.length + " - count) * "
+                            + processor.getMemberSize(field) + ");");
+                    }
+                    line(2, "}");
+                    break;
+            }
+        }
+        line(1, "}");
+    }
+
+    private void writeDeserialize() {
+        line(1, "@Override");
+        line(1, "public " + className + " deserialize(ByteBuffer buffer, Charset charset) {");
+        line(2, className + " value = new " + className + "();");
+        for (FieldModel field : fields) {
+            if (field.bits > 0) {
+                readBitMember(field);
+                continue;
+            }
+            switch (field.kind) {
+                case PRIMITIVE:
+                    line(2, field.writeStatement("value", readValue(field, field.primitive.evaluateSize(field.bytes))));
+                    break;
+                case STRING:
+                    line(2, field.writeStatement("value", field.isPrefixed()
+                        ? "TairaCodec.readPrefixedString(buffer, " + field.prefix + ", charset)"
+                        : "TairaCodec.readString(buffer, " + field.bytes + ", charset)"));
+                    break;
+                case BYTES:
+                    line(2, field.writeStatement("value", field.isPrefixed()
+                        ? "TairaCodec.readPrefixedBytes(buffer, " + field.prefix + ")"
+                        : "TairaCodec.readBytes(buffer, " + field.bytes + ")"));
+                    break;
+                case TAIRA:
+                    line(2, field.writeStatement("value",
+                        nestedSerializers.get(field.tairaType) + ".deserialize(buffer, charset)"));
+                    break;
+                case PRIMITIVE_ARRAY:
+                    if (field.isPrefixed()) {
+                        // bulk readers take 0 as reading all remains
+                        line(2, "{");
+                        line(3, "int count = " + readLengthPrefix(field) + ";");
+                        line(3, field.writeStatement("value", "count == 0 ? new " + arrayOf(field, "0")
+                            + " : TairaCodec.read" + field.primitive.codecName + "s(buffer, count"
+                            + memberBytesArgument(field) + ")"));
+                        line(2, "}");
+                    } else {
+                        line(2, field.writeStatement("value", "TairaCodec.read" + field.primitive.codecName
+                            + "s(buffer, " + field.length + memberBytesArgument(field) + ")"));
+                    }
+                    break;
+                case COLLECTION:
+                    line(2, "{");
+                    line(3, field.typeName + " fieldValue = new java.util." + (field.isSet ? "HashSet" : "ArrayList")
+                        + "<" + field.memberTypeName + ">();");
+                    if (field.isPrefixed()) {
+                        line(3, "int count = " + readLengthPrefix(field) + ";");
+                        line(3, "for (int i = 0; i < count; i++) {");
+                    } else if (field.isTail()) {
+                        line(3, "while (buffer.hasRemaining()) {");
+                    } else {
+                        line(3, "for (int i = 0; i < " + field.length + "; i++) {");
+                    }
+                    line(4, "fieldValue.add(" + readMember(field) + ");");
+                    line(3, "}");
+                    line(3, field.writeStatement("value", "fieldValue"));
+                    line(2, "}");
+                    break;
+                default:
+                    line(2, "{");
+                    if (field.isTail()) {
+                        String boxedName = field.primitive != null ? field.primitive.boxedName : field.memberTypeName;
+                        line(3, "java.util.List<" + boxedName + "> members = new java.util.ArrayList<" + boxedName
+                            + ">();");
+                        line(3, "while (buffer.hasRemaining()) {");
+                        line(4, "members.add(" + readMember(field) + ");");
+                        line(3, "}");
+                        line(3, field.typeName + " fieldValue = new " + arrayOf(field, "members.size()") + ";");
+                        line(3, "for (int i = 0; i < fieldValue.length; i++) {");
+                        line(4, "fieldValue[i] = members.get(i);");
+                    } else {
+                        String count = field.isPrefixed() ? readLengthPrefix(field) : String.valueOf(field.length);
+                        line(3, field.typeName + " fieldValue = new " + arrayOf(field, count) + ";");
+                        line(3, "for (int i = 0; i < fieldValue.length; i++) {");
+                        line(4, "fieldValue[i] = " + readMember(field) + ";");
+                    }
+                    line(3, "}");
+                    line(3, field.writeStatement("value", "fieldValue"));
+                    line(2, "}");
+                    break;
+            }
+        }
+        line(2, "return value;");
+        line(1, "}");
+    }
+
+    /**
+     * write a [bits] field, the first member opens its bit group block and the last one closes it
+     */
+    private void writeBitMember(FieldModel field) {
+        if (field.bitGroupBytes > 0) {
+            line(2, "{");
+            line(3, "int bitStart = TairaCodec.writeBitGroup(buffer, " + field.bitGroupBytes + ");");
+        }
+        String read = field.readExpression("value");
+        boolean isBoolean = field.primitive == PrimitiveType.BOOLEAN;
+        if (field.kind == FieldModel.Kind.PRIMITIVE && !field.boxed) {
+            line(3, writeBits(field, String.valueOf(field.bitOffset), isBoolean ? read + " ? 1 : 0" : read));
+        } else if (field.kind == FieldModel.Kind.PRIMITIVE) {
+            line(3, "{");
+            line(4, field.typeName + " fieldValue = " + read + ";");
+            line(4, writeBits(field, String.valueOf(field.bitOffset),
+                isBoolean ? "Boolean.TRUE.equals(fieldValue) ? 1 : 0" : "fieldValue == null ? 0 : fieldValue"));
+            line(3, "}");
+        } else {
+            // bitset, remains are zero-filled with the group
+            line(3, "{");
+            line(4, field.typeName + " fieldValue = " + read + ";");
+            line(4, "int count = fieldValue == null ? 0 : fieldValue." + countOf(field) + ";");
+            line(4, "TairaCodec.checkLength(count, " + field.length + ", \"" + field.name + "\");");
+            line(4, "if (fieldValue != null) {");
+            line(5, "int i = 0;");
+            line(5, "for (" + field.memberTypeName + " member : fieldValue) {");
+            line(6, writeBits(field, field.bitOffset + " + i++",
+                field.boxed ? "Boolean.TRUE.equals(member) ? 1 : 0" : "member ? 1 : 0"));
+            line(5, "}");
+            line(4, "}");
+            line(3, "}");
+        }
+        if (field.bitGroupEnd) {
+            line(2, "}");
+        }
+    }
+
+    /**
+     * read a [bits] field, the first member opens its bit group block and the last one closes it
+     */
+    private void readBitMember(FieldModel field) {
+        if (field.bitGroupBytes > 0) {
+            line(2, "{");
+            line(3, "int bitStart = TairaCodec.readBitGroup(buffer, " + field.bitGroupBytes + ");");
+        }
+        if (field.kind == FieldModel.Kind.PRIMITIVE) {
+            String bits = "TairaCodec.readBits(buffer, bitStart, " + field.bitOffset + ", " + field.bits + ")";
+            if (field.primitive == PrimitiveType.BOOLEAN) {
+                bits = bits + " != 0";
+            } else if (field.primitive != PrimitiveType.LONG) {
+                bits = "(" + field.primitive.primitiveName + ") " + bits;
+            }
+            line(3, field.writeStatement("value", bits));
+        } else {
+            String bit = "TairaCodec.readBits(buffer, bitStart, " + field.bitOffset + " + i, 1) != 0";
+            line(3, "{");
+            if (field.kind == FieldModel.Kind.COLLECTION) {
+                line(4, field.typeName + " fieldValue = new java.util.ArrayList<" + field.memberTypeName + ">();");
+                line(4, "for (int i = 0; i < " + field.length + "; i++) {");
+                line(5, "fieldValue.add(" + bit + ");");
+            } else {
+                line(4, field.typeName + " fieldValue = new " + arrayOf(field, String.valueOf(field.length)) + ";");
+                line(4, "for (int i = 0; i < fieldValue.length; i++) {");
+                line(5, "fieldValue[i] = " + bit + ";");
+            }
+            line(4, "}");
+            line(4, field.writeStatement("value", "fieldValue"));
+            line(3, "}");
+        }
+        if (field.bitGroupEnd) {
+            line(2, "}");
+        }
+    }
+
+    private String writeBits(FieldModel field, String bitOffset, String value) {
+        int bits = field.kind == FieldModel.Kind.PRIMITIVE ? field.bits : 1;
+        if (field.kind == FieldModel.Kind.PRIMITIVE && field.primitive != PrimitiveType.BOOLEAN
+            && bits < field.primitive.byteSize * 8) {
+            // unsigned range check when narrowed
+            value = "TairaCodec.checkBits(" + value + ", " + bits + ")";
+        }
+        return "TairaCodec.writeBits(buffer, bitStart, " + bitOffset + ", " + bits + ", " + value + ");";
+    }
+
+    /**
+     * check [length] limit and write member count of prefixed field, declared as {@code count}
+     */
+    private void writeLengthPrefix(FieldModel field) {
+        if (field.length > 0) {
+            line(3, "TairaCodec.checkLength(count, " + field.length + ", \"" + field.name + "\");");
+        }
+        line(3, "TairaCodec.writeLengthPrefix(buffer, count, " + field.prefix + ", \"" + field.name + "\");");
+    }
+
+    private String readLengthPrefix(FieldModel field) {
+        return "TairaCodec.readLengthPrefix(buffer, " + field.prefix + ")";
+    }
+
+    private String writeMember(FieldModel field, String member) {
+        if (field.primitive == null) {
+            return nestedSerializers.get(field.tairaType) + ".serialize(buffer, " + member + ", charset);";
+        }
+        String value = field.boxed ? member + " == null ? " + field.primitive.defaultValue + " : " + member : member;
+        return writeValue(field, value, field.primitive.byteSize);
+    }
+
+    private String readMember(FieldModel field) {
+        if (field.primitive == null) {
+            return nestedSerializers.get(field.tairaType) + ".deserialize(buffer, charset)";
+        }
+        return readValue(field, field.primitive.byteSize);
+    }
+
+    /**
+     * write primitive value of field or member, varint encoded when specified
+     */
+    private String writeValue(FieldModel field, String value, int bytes) {
+        if (field.isVarInt()) {
+            return "TairaCodec.writeVar" + field.primitive.codecName + "(buffer, " + value + ", " + isZigZag(field)
+                + ");";
+        }
+        return writePrimitive(field.primitive, value, bytes);
+    }
+
+    private String readValue(FieldModel field, int bytes) {
+        if (field.isVarInt()) {
+            return "TairaCodec.readVar" + field.primitive.codecName + "(buffer, " + isZigZag(field) + ")";
+        }
+        return readPrimitive(field.primitive, bytes);
+    }
+
+    private String sizeOfVarInt(FieldModel field, String value) {
+        return "TairaCodec.sizeOfVar" + field.primitive.codecName + "(" + value + ", " + isZigZag(field) + ")";
+    }
+
+    private boolean isZigZag(FieldModel field) {
+        return field.encoding == ParamField.Encoding.ZIGZAG;
+    }
+
+    /**
+     * member [bytes] argument of bulk primitive array methods, boolean[] has none
+     */
+    private String memberBytesArgument(FieldModel field) {
+        return field.primitive.byteSize <= 1 ? "" : ", " + processor.getMemberSize(field);
+    }
+
+    private String writePrimitive(PrimitiveType primitive, String value, int bytes) {
+        if (primitive.byteSize <= 1) {
+            return "TairaCodec.write" + primitive.codecName + "(buffer, " + value + ");";
+        }
+        return "TairaCodec.write" + primitive.codecName + "(buffer, " + value + ", " + bytes + ");";
+    }
+
+    private String readPrimitive(PrimitiveType primitive, int bytes) {
+        if (primitive.byteSize <= 1) {
+            return "TairaCodec.read" + primitive.codecName + "(buffer)";
+        }
+        return "TairaCodec.read" + primitive.codecName + "(buffer, " + bytes + ")";
+    }
+
+    /**
+     * array creation expression, e.g. {@code int[3]}
+     */
+    private String arrayOf(FieldModel field, String size) {
+        return field.memberTypeName + "[" + size + "]";
+    }
+
+    private String countOf(FieldModel field) {
+        return field.kind == FieldModel.Kind.COLLECTION ? "size()" : "length";
+    }
+
+    private void line(int indent, String content) {
+        if (!content.isEmpty()) {
+            for (int i = 0; i < indent; i++) {
+                code.append(INDENT);
+            }
+            code.append(content);
+        }
+        code.append('\n');
+    }
+
+    private static String toConstantName(String simpleName) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < simpleName.length(); i++) {
+            char c = simpleName.charAt(i);
+            if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(simpleName.charAt(i - 1))) {
+                builder.append('_');
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+}
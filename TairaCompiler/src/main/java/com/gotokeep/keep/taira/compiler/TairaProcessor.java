@@ -0,0 +1,769 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.compiler;
+
+import com.gotokeep.keep.taira.TairaData;
+import com.gotokeep.keep.taira.TairaSerializer;
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * generate a {@link TairaSerializer} for every TairaData class declaring @ParamField
+ *
+ * annotation rules of AnnotationUtils are reported as compile errors. Classes whose fields can not be reached
+ * without reflection are skipped with a note, Taira falls back to the reflective node tree for them.
+ */
+@SupportedAnnotationTypes("com.gotokeep.keep.taira.annotation.ParamField")
+public class TairaProcessor extends AbstractProcessor {
+
+    private static final String LIST_TYPE = "java.util.List";
+
+    private static final String SET_TYPE = "java.util.Set";
+
+    /**
+     * ParamField order comparator
+     */
+    private static final Comparator<VariableElement> ORDER_COMPARATOR = new Comparator<VariableElement>() {
+        @Override
+        public int compare(VariableElement left, VariableElement right) {
+            return left.getAnnotation(ParamField.class).order() - right.getAnnotation(ParamField.class).order();
+        }
+    };
+
+    private Elements elements;
+
+    private Types types;
+
+    private Messager messager;
+
+    private Filer filer;
+
+    private TypeMirror tairaDataType;
+
+    /**
+     * check-passed classes of current round
+     */
+    private final Set<TypeElement> roundClasses = new LinkedHashSet<>();
+
+    /**
+     * resolved field models
+     */
+    private final Map<TypeElement, List<FieldModel>> fieldModels = new HashMap<>();
+
+    /**
+     * reason why a class can not be generated, empty string if it can
+     */
+    private final Map<TypeElement, String> skipReasons = new HashMap<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+        filer = processingEnv.getFiler();
+        tairaDataType = types.erasure(elements.getTypeElement(TairaData.class.getName()).asType());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> classes = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ParamField.class)) {
+            classes.add((TypeElement) element.getEnclosingElement());
+        }
+
+        roundClasses.clear();
+        for (TypeElement clazz : classes) {
+            if (!isTairaClass(clazz.asType())) {
+                messager.printMessage(Diagnostic.Kind.WARNING,
+                    "@ParamField declared in class [" + clazz.getQualifiedName() + "] which is not a TairaData", clazz);
+                continue;
+            }
+            if (clazz.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            try {
+                checkAnnotationOrThrow(clazz, false, new HashSet<TypeElement>());
+                roundClasses.add(clazz);
+            } catch (CheckException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            }
+        }
+
+        for (TypeElement clazz : roundClasses) {
+            String skipReason = getSkipReason(clazz);
+            if (!skipReason.isEmpty()) {
+                messager.printMessage(Diagnostic.Kind.NOTE,
+                    "Taira serializer not generated for [" + clazz.getQualifiedName() + "]: " + skipReason, clazz);
+                continue;
+            }
+            generate(clazz);
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // annotation check, same rules as AnnotationUtils
+
+    private void checkAnnotationOrThrow(TypeElement clazz, boolean isRecursive, Set<TypeElement> recursiveTypeSet)
+        throws CheckException {
+        List<VariableElement> fields = extractAnnotatedFields(clazz);
+        String className = clazz.getQualifiedName().toString();
+
+        if (fields.isEmpty()) {
+            throw new CheckException(clazz, "No @ParamField declared in class [" + className + "]");
+        }
+        if (!isNonParamConstructorExists(clazz)) {
+            throw new CheckException(clazz, "Class [" + className + "] should define a non-parameter constructor");
+        }
+        if (recursiveTypeSet.contains(clazz)) {
+            throw new CheckException(clazz, "Recursive TairaData type " + className + " already exists");
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            TypeMirror fieldType = field.asType();
+            PrimitiveType primitive = findPrimitive(fieldType);
+
+            // check ParamField
+            checkParamFieldUsage(i, fields.size(), field, className, primitive, isRecursive);
+
+            // check Fields
+            if (primitive != null) {
+                continue;
+            }
+            // TairaData type, recursively check
+            if (isTairaClass(fieldType)) {
+                recursiveTypeSet.add(clazz);
+                checkAnnotationOrThrow(asTypeElement(fieldType), true, recursiveTypeSet);
+                continue;
+            }
+            // String & byte[], skip
+            if (isByteArray(fieldType)) {
+                continue;
+            }
+            // collection & other typed array
+            if (isSupportedCollection(fieldType) || fieldType.getKind() == TypeKind.ARRAY) {
+                TypeMirror memberType = getMemberType(fieldType);
+                String unsupportedMember = "Member type of collection field [" + field.getSimpleName()
+                    + "] in class [" + className + "] can only be primitive type or TairaData";
+                if (memberType == null) {
+                    throw new CheckException(field, unsupportedMember);
+                }
+                // abstract or interface member type not supported
+                if (isInterfaceOrAbstract(memberType)) {
+                    throw new CheckException(field,
+                        "Member type of collection field [" + field.getSimpleName() + "] in class [" + className
+                            + "] should not be interface or abstract");
+                }
+                // TairaData member type, recursively check
+                if (isTairaClass(memberType)) {
+                    recursiveTypeSet.add(clazz);
+                    checkAnnotationOrThrow(asTypeElement(memberType), true, recursiveTypeSet);
+                } else if (findPrimitive(memberType) == null) {
+                    // unsupported member type
+                    throw new CheckException(field, unsupportedMember);
+                }
+                continue;
+            }
+
+            // unsupported field type
+            throw new CheckException(field,
+                "Type of field [" + field.getSimpleName() + "] in class [" + className + "] is not supported");
+        }
+    }
+
+    private void checkParamFieldUsage(int fieldIndex, int fieldsSize, VariableElement field, String className,
+                                      PrimitiveType primitive, boolean isRecursive) throws CheckException {
+        ParamField annotation = field.getAnnotation(ParamField.class);
+        TypeMirror fieldType = field.asType();
+
+        // check order
+        if (annotation.order() != fieldIndex) {
+            throw new CheckException(field,
+                "[order] on field [" + field.getSimpleName() + "] in class [" + className + "] is not sequential");
+        }
+
+        // check bits
+        if (annotation.bits() != 0) {
+            checkBitsUsage(field, className, primitive, annotation);
+        }
+
+        // check encoding
+        if (annotation.encoding() != ParamField.Encoding.FIXED) {
+            checkEncodingUsage(field, className, primitive, annotation);
+        }
+
+        // check prefix
+        if (annotation.prefix() != 0) {
+            checkPrefixUsage(field, className, annotation);
+        }
+
+        // check String & byte[]
+        if (isByteArray(fieldType) && annotation.bytes() <= 0 && annotation.prefix() <= 0) {
+            // non-recursive byte array can pass
+            if (!isRecursive) {
+                return;
+            }
+            throw new CheckException(field,
+                "Field [" + field.getSimpleName() + "] in class [" + className + "] should specify [bytes] value");
+        }
+
+        // check primitive type bytes overflow
+        if (primitive != null && annotation.bytes() > 0 && annotation.bytes() > primitive.byteSize) {
+            throw new CheckException(field,
+                "[bytes] on field [" + field.getSimpleName() + "] in class [" + className
+                    + "] is too large (which should be lesser than or equal to " + primitive.byteSize + ")");
+        }
+
+        // check primitive array member bytes overflow
+        TypeMirror arrayMemberType = fieldType.getKind() == TypeKind.ARRAY ? getMemberType(fieldType) : null;
+        if (arrayMemberType != null && arrayMemberType.getKind().isPrimitive() && !isByteArray(fieldType)
+            && annotation.bytes() > 0) {
+            PrimitiveType memberPrimitive = findPrimitive(arrayMemberType);
+            if (annotation.bytes() > memberPrimitive.byteSize) {
+                throw new CheckException(field,
+                    "[bytes] on field [" + field.getSimpleName() + "] in class [" + className
+                        + "] is too large (which should be lesser than or equal to " + memberPrimitive.byteSize + ")");
+            }
+        }
+
+        // check collection & array length
+        if (!isByteArray(fieldType) && annotation.prefix() <= 0
+            && (isSupportedCollection(fieldType) || fieldType.getKind() == TypeKind.ARRAY)) {
+            // tail field without length
+            if (fieldIndex < fieldsSize - 1 && annotation.length() <= 0) {
+                throw new CheckException(field,
+                    "Field [" + field.getSimpleName() + "] in class [" + className
+                        + "] should specify [length] value");
+            }
+            // recursive TairaData tail field without length
+            if (fieldIndex == fieldsSize - 1 && isRecursive && annotation.length() <= 0) {
+                throw new CheckException(field,
+                    "Field [" + field.getSimpleName() + "] in recursive class [" + className
+                        + "] should specify [length] value");
+            }
+        }
+    }
+
+    private void checkBitsUsage(VariableElement field, String className, PrimitiveType primitive,
+                                ParamField annotation) throws CheckException {
+        String target = "[bits] on field [" + field.getSimpleName() + "] in class [" + className + "]";
+        if (annotation.bits() < 0) {
+            throw new CheckException(field, target + " should be positive");
+        }
+        if (annotation.bytes() > 0) {
+            throw new CheckException(field, target + " can not be used with [bytes]");
+        }
+        if (primitive != null && primitive != PrimitiveType.FLOAT && primitive != PrimitiveType.DOUBLE) {
+            int maxBits = primitive == PrimitiveType.BOOLEAN ? 1 : primitive.byteSize * 8;
+            if (annotation.bits() > maxBits) {
+                throw new CheckException(field,
+                    target + " is too large (which should be lesser than or equal to " + maxBits + ")");
+            }
+            return;
+        }
+        TypeMirror fieldType = field.asType();
+        boolean isList = fieldType.getKind() == TypeKind.DECLARED && LIST_TYPE.equals(getErasureName(fieldType));
+        TypeMirror memberType = fieldType.getKind() == TypeKind.ARRAY || isList ? getMemberType(fieldType) : null;
+        if (memberType == null || findPrimitive(memberType) != PrimitiveType.BOOLEAN) {
+            throw new CheckException(field,
+                target + " is only supported on boolean, integer types, boolean[] and List<Boolean>");
+        }
+        if (annotation.bits() != 1) {
+            throw new CheckException(field, target + " should be 1 for bitset");
+        }
+        if (annotation.length() <= 0) {
+            throw new CheckException(field, "Bitset field [" + field.getSimpleName() + "] in class [" + className
+                + "] should specify [length] value");
+        }
+    }
+
+    private void checkEncodingUsage(VariableElement field, String className, PrimitiveType primitive,
+                                    ParamField annotation) throws CheckException {
+        String target = "[encoding] on field [" + field.getSimpleName() + "] in class [" + className + "]";
+        if (annotation.bytes() > 0 || annotation.bits() > 0) {
+            throw new CheckException(field, target + " can not be used with [bytes] or [bits]");
+        }
+        PrimitiveType integer = primitive;
+        TypeMirror fieldType = field.asType();
+        if (integer == null && (isSupportedCollection(fieldType) || fieldType.getKind() == TypeKind.ARRAY)) {
+            TypeMirror memberType = getMemberType(fieldType);
+            integer = memberType == null ? null : findPrimitive(memberType);
+        }
+        if (integer != PrimitiveType.CHAR && integer != PrimitiveType.SHORT && integer != PrimitiveType.INT
+            && integer != PrimitiveType.LONG) {
+            throw new CheckException(field,
+                target + " is only supported on char, short, int, long and their collections");
+        }
+    }
+
+    private void checkPrefixUsage(VariableElement field, String className, ParamField annotation)
+        throws CheckException {
+        String target = "[prefix] on field [" + field.getSimpleName() + "] in class [" + className + "]";
+        if (annotation.prefix() < 0 || annotation.prefix() > 4) {
+            throw new CheckException(field, target + " should be 1 to 4");
+        }
+        TypeMirror fieldType = field.asType();
+        if (!isByteArray(fieldType) && !isSupportedCollection(fieldType) && fieldType.getKind() != TypeKind.ARRAY) {
+            throw new CheckException(field, target + " is only supported on String, byte[] and collections");
+        }
+        if (annotation.bits() > 0) {
+            throw new CheckException(field, target + " can not be used with [bits]");
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // models
+
+    /**
+     * get why a class can not be generated, memoized
+     *
+     * @return empty string if it can be generated
+     */
+    private String getSkipReason(TypeElement clazz) {
+        String reason = skipReasons.get(clazz);
+        if (reason == null) {
+            reason = resolveSkipReason(clazz);
+            skipReasons.put(clazz, reason);
+        }
+        return reason;
+    }
+
+    private String resolveSkipReason(TypeElement clazz) {
+        if (clazz.getModifiers().contains(Modifier.PRIVATE)) {
+            return "class is private";
+        }
+        if (clazz.getNestingKind() != NestingKind.TOP_LEVEL && clazz.getNestingKind() != NestingKind.MEMBER) {
+            return "class is local or anonymous";
+        }
+        if (clazz.getNestingKind() == NestingKind.MEMBER && !clazz.getModifiers().contains(Modifier.STATIC)) {
+            return "inner class is not static";
+        }
+        if (!hasAccessibleConstructor(clazz)) {
+            return "non-parameter constructor is private";
+        }
+        String packageName = getPackageName(clazz);
+        for (FieldModel field : getFieldModels(clazz)) {
+            if (!resolveAccess(field, clazz, packageName)) {
+                return "field [" + field.name + "] is private and has no getter/setter";
+            }
+            if (field.kind == FieldModel.Kind.BYTES && !"byte[]".equals(field.typeName)) {
+                return "field [" + field.name + "] is not a byte[]";
+            }
+            if (field.tairaType != null && !isSerializerAvailable(field.tairaType)) {
+                return "no serializer for nested type [" + field.tairaType.getQualifiedName() + "]";
+            }
+        }
+        return "";
+    }
+
+    /**
+     * whether nested TairaData type has a generated serializer in current round or on classpath
+     */
+    private boolean isSerializerAvailable(TypeElement clazz) {
+        if (roundClasses.contains(clazz)) {
+            return getSkipReason(clazz).isEmpty();
+        }
+        return elements.getTypeElement(getSerializerQualifiedName(clazz)) != null;
+    }
+
+    /**
+     * resolve direct field access or getter/setter
+     *
+     * @return false if field can not be accessed from generated code
+     */
+    private boolean resolveAccess(FieldModel field, TypeElement clazz, String packageName) {
+        if (isAccessible(field.element, packageName)) {
+            return true;
+        }
+        String capitalized = Character.toUpperCase(field.name.charAt(0)) + field.name.substring(1);
+        TypeMirror fieldType = field.element.asType();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(clazz))) {
+            if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method, packageName)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && types.isSameType(method.getReturnType(), fieldType)
+                && (methodName.equals("get" + capitalized)
+                || fieldType.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized))) {
+                field.getter = methodName;
+            }
+            if (method.getParameters().size() == 1 && methodName.equals("set" + capitalized)
+                && types.isSameType(method.getParameters().get(0).asType(), fieldType)) {
+                field.setter = methodName;
+            }
+        }
+        return field.getter != null && field.setter != null;
+    }
+
+    private boolean isAccessible(Element element, String packageName) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return packageName.equals(getPackageName(element));
+    }
+
+    private boolean hasAccessibleConstructor(TypeElement clazz) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(clazz.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * get sorted field models of a check-passed class, memoized
+     */
+    List<FieldModel> getFieldModels(TypeElement clazz) {
+        List<FieldModel> models = fieldModels.get(clazz);
+        if (models != null) {
+            return models;
+        }
+        models = new ArrayList<>();
+        for (VariableElement field : extractAnnotatedFields(clazz)) {
+            ParamField annotation = field.getAnnotation(ParamField.class);
+            TypeMirror type = field.asType();
+            FieldModel model;
+            PrimitiveType primitive = findPrimitive(type);
+            if (primitive != null) {
+                model = newModel(field, FieldModel.Kind.PRIMITIVE, annotation, type);
+                model.primitive = primitive;
+                model.boxed = !type.getKind().isPrimitive();
+            } else if (isTairaClass(type)) {
+                model = newModel(field, FieldModel.Kind.TAIRA, annotation, type);
+                model.tairaType = asTypeElement(type);
+            } else if (isByteArray(type)) {
+                model = newModel(field, type.getKind() == TypeKind.ARRAY ? FieldModel.Kind.BYTES
+                    : FieldModel.Kind.STRING, annotation, type);
+            } else {
+                TypeMirror memberType = getMemberType(type);
+                FieldModel.Kind kind = FieldModel.Kind.COLLECTION;
+                if (type.getKind() == TypeKind.ARRAY) {
+                    // varint arrays are written member by member
+                    kind = memberType.getKind().isPrimitive() && annotation.encoding() == ParamField.Encoding.FIXED
+                        ? FieldModel.Kind.PRIMITIVE_ARRAY : FieldModel.Kind.ARRAY;
+                }
+                model = newModel(field, kind, annotation, type);
+                model.memberTypeName = memberType.toString();
+                model.isSet = type.getKind() == TypeKind.DECLARED && SET_TYPE.equals(getErasureName(type));
+                model.primitive = findPrimitive(memberType);
+                model.boxed = !memberType.getKind().isPrimitive();
+                if (model.primitive == null) {
+                    model.tairaType = asTypeElement(memberType);
+                }
+            }
+            models.add(model);
+        }
+        // consecutive [bits] fields share a group
+        FieldModel groupStart = null;
+        int bitCount = 0;
+        for (int i = 0; i < models.size(); i++) {
+            FieldModel model = models.get(i);
+            if (model.bits <= 0) {
+                groupStart = null;
+                continue;
+            }
+            if (groupStart == null) {
+                groupStart = model;
+                bitCount = 0;
+            }
+            model.bitOffset = bitCount;
+            bitCount += model.bitCount();
+            groupStart.bitGroupBytes = (bitCount + 7) / 8;
+            model.bitGroupEnd = i == models.size() - 1 || models.get(i + 1).bits <= 0;
+        }
+        fieldModels.put(clazz, models);
+        return models;
+    }
+
+    private FieldModel newModel(VariableElement field, FieldModel.Kind kind, ParamField annotation, TypeMirror type) {
+        return new FieldModel(field, kind, annotation.order(), annotation.bytes(), annotation.length(),
+            annotation.bits(), annotation.encoding(), annotation.prefix(), type);
+    }
+
+    /**
+     * whether encoded size of a nested TairaData class depends on its value, by varint, prefixed or nested fields
+     */
+    boolean isVariableSize(TypeElement clazz) {
+        for (FieldModel field : getFieldModels(clazz)) {
+            if (field.isVarInt() || field.isPrefixed() || field.tairaType != null && isVariableSize(field.tairaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * whether collection members or nested TairaData of a field differ in encoded size
+     */
+    boolean hasVariableMember(FieldModel field) {
+        return field.isVarInt() || field.tairaType != null && isVariableSize(field.tairaType);
+    }
+
+    /**
+     * encoded byte size of a nested (non-tail) TairaData class, smallest size if variable
+     */
+    int getFixedSize(TypeElement clazz) {
+        int size = 0;
+        for (FieldModel field : getFieldModels(clazz)) {
+            size += getFixedSize(field);
+        }
+        return size;
+    }
+
+    /**
+     * encoded byte size of a field, tail part and content after length prefix excluded
+     */
+    int getFixedSize(FieldModel field) {
+        if (field.bits > 0) {
+            return field.bitGroupBytes;
+        }
+        switch (field.kind) {
+            case PRIMITIVE:
+                return field.isVarInt() ? 1 : field.primitive.evaluateSize(field.bytes);
+            case STRING:
+            case BYTES:
+                if (field.isPrefixed()) {
+                    return field.prefix;
+                }
+                return field.isTail() ? 0 : field.bytes;
+            case TAIRA:
+                return getFixedSize(field.tairaType);
+            default:
+                if (field.isPrefixed()) {
+                    return field.prefix;
+                }
+                return field.isTail() ? 0 : field.length * getMemberSize(field);
+        }
+    }
+
+    /**
+     * encoded byte size of a collection member, primitive array members may be narrowed by [bytes]
+     *
+     * smallest size of a varint or variable-size TairaData member
+     */
+    int getMemberSize(FieldModel field) {
+        if (field.isVarInt()) {
+            return 1;
+        }
+        if (field.kind == FieldModel.Kind.PRIMITIVE_ARRAY) {
+            return field.primitive.evaluateSize(field.bytes);
+        }
+        return field.primitive != null ? field.primitive.byteSize : getFixedSize(field.tairaType);
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // generation
+
+    private void generate(TypeElement clazz) {
+        String qualifiedName = getSerializerQualifiedName(clazz);
+        try {
+            JavaFileObject file = filer.createSourceFile(qualifiedName, clazz);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(new SerializerGenerator(this, clazz, getPackageName(clazz),
+                    getSerializerSimpleName(clazz)).generate());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                "Failed to write Taira serializer [" + qualifiedName + "]: " + e.getMessage(), clazz);
+        }
+    }
+
+    String getSerializerQualifiedName(TypeElement clazz) {
+        String packageName = getPackageName(clazz);
+        return packageName.isEmpty() ? getSerializerSimpleName(clazz)
+            : packageName + "." + getSerializerSimpleName(clazz);
+    }
+
+    /**
+     * same naming rule as ReflectionUtils.findGeneratedSerializer
+     */
+    private String getSerializerSimpleName(TypeElement clazz) {
+        String packageName = getPackageName(clazz);
+        String binaryName = elements.getBinaryName(clazz).toString();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        return simpleName.replace('$', '_') + TairaSerializer.GENERATED_SUFFIX;
+    }
+
+    private String getPackageName(Element element) {
+        return elements.getPackageOf(element).getQualifiedName().toString();
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // type utils, same rules as TairaTypeConst & ReflectionUtils
+
+    /**
+     * get @ParamField annotated fields hierarchically, sorted by order
+     */
+    private List<VariableElement> extractAnnotatedFields(TypeElement clazz) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeElement current = clazz;
+        while (current != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getAnnotation(ParamField.class) != null) {
+                    fields.add(field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? asTypeElement(superclass) : null;
+        }
+        Collections.sort(fields, ORDER_COMPARATOR);
+        return fields;
+    }
+
+    private boolean isNonParamConstructorExists(TypeElement clazz) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(clazz.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PrimitiveType findPrimitive(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return PrimitiveType.find(type.toString());
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return PrimitiveType.find(getErasureName(type));
+        }
+        return null;
+    }
+
+    private boolean isTairaClass(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), tairaDataType);
+    }
+
+    private boolean isByteArray(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            TypeMirror memberType = ((ArrayType) type).getComponentType();
+            return memberType.getKind() == TypeKind.BYTE || (memberType.getKind() == TypeKind.DECLARED
+                && Byte.class.getName().equals(getErasureName(memberType)));
+        }
+        return type.getKind() == TypeKind.DECLARED && String.class.getName().equals(getErasureName(type));
+    }
+
+    private boolean isSupportedCollection(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        String name = getErasureName(type);
+        return LIST_TYPE.equals(name) || SET_TYPE.equals(name);
+    }
+
+    /**
+     * get member type from array or collection
+     *
+     * @return member type, null if raw or not a concrete type
+     */
+    private TypeMirror getMemberType(TypeMirror type) {
+        TypeMirror memberType = null;
+        if (type.getKind() == TypeKind.ARRAY) {
+            memberType = ((ArrayType) type).getComponentType();
+        } else if (isSupportedCollection(type)) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            memberType = arguments.isEmpty() ? null : arguments.get(0);
+        }
+        if (memberType == null || (!memberType.getKind().isPrimitive() && memberType.getKind() != TypeKind.DECLARED)) {
+            return null;
+        }
+        return memberType;
+    }
+
+    private boolean isInterfaceOrAbstract(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement element = asTypeElement(type);
+        return element.getKind() == ElementKind.INTERFACE || element.getModifiers().contains(Modifier.ABSTRACT);
+    }
+
+    private TypeElement asTypeElement(TypeMirror type) {
+        return (TypeElement) types.asElement(type);
+    }
+
+    private String getErasureName(TypeMirror type) {
+        return asTypeElement(types.erasure(type)).getQualifiedName().toString();
+    }
+
+    /**
+     * annotation rule violation
+     */
+    private static class CheckException extends Exception {
+
+        final Element element;
+
+        CheckException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * one serialize/deserialize call of a Taira instance, from start to result or failure
+ */
+@Name(TairaCallEvent.NAME)
+@Label("Taira Call")
+@Category("Taira")
+@Description("Serialize or deserialize call of a Taira instance")
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+class TairaCallEvent extends Event {
+
+    static final String NAME = "com.gotokeep.keep.taira.Call";
+
+    @Label("Operation")
+    @Description("serialize or deserialize")
+    String operation;
+
+    @Label("Class")
+    String className;
+
+    @Label("Size")
+    @Description("Encoded byte count, 0 on failure")
+    @DataAmount(DataAmount.BYTES)
+    int size;
+
+    @Label("Failure")
+    @Description("Exception thrown by the call, null on success")
+    String failure;
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.jfr;
+
+import com.gotokeep.keep.taira.TairaData;
+import com.gotokeep.keep.taira.TairaListener;
+
+import java.time.Duration;
+
+import jdk.jfr.Recording;
+
+/**
+ * emit JDK Flight Recorder events for calls and node builds of a Taira instance
+ *
+ * events are disabled by default, turn them on in a recording through {@link #enable(Recording, Duration)} or a
+ * settings file using the names {@value TairaCallEvent#NAME} and {@value TairaNodeBuildEvent#NAME}. while disabled,
+ * a call costs one enabled check
+ *
+ * events of one call live on its thread, every callback is forwarded to the delegate afterwards
+ */
+public class TairaJfrListener extends TairaListener {
+
+    private final TairaListener delegate;
+
+    /**
+     * call event begun on current thread, null if disabled or ended
+     */
+    private final ThreadLocal<TairaCallEvent> calls = new ThreadLocal<>();
+
+    /**
+     * node build event begun on current thread, null if disabled or ended
+     */
+    private final ThreadLocal<TairaNodeBuildEvent> builds = new ThreadLocal<>();
+
+    public TairaJfrListener() {
+        this(TairaListener.none());
+    }
+
+    /**
+     * @param delegate listener receiving every event too, e.g. {@link com.gotokeep.keep.taira.TairaMetrics}
+     */
+    public TairaJfrListener(TairaListener delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * enable Taira events in [recording]
+     *
+     * @param recording recording to configure
+     * @param threshold calls shorter than this are dropped, node builds are always recorded
+     */
+    public static void enable(Recording recording, Duration threshold) {
+        recording.enable(TairaCallEvent.NAME).withThreshold(threshold).withoutStackTrace();
+        recording.enable(TairaNodeBuildEvent.NAME).withoutStackTrace();
+    }
+
+    @Override
+    public void onStart() {
+        TairaCallEvent event = new TairaCallEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            calls.set(event);
+        }
+        delegate.onStart();
+    }
+
+    @Override
+    public void onSerialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+        endCall("serialize", clazz, bytes, null);
+        delegate.onSerialize(clazz, bytes, nanos);
+    }
+
+    @Override
+    public void onDeserialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+        endCall("deserialize", clazz, bytes, null);
+        delegate.onDeserialize(clazz, bytes, nanos);
+    }
+
+    @Override
+    public void onNodeLookup(Class<? extends TairaData> clazz, boolean hit) {
+        if (!hit) {
+            TairaNodeBuildEvent event = new TairaNodeBuildEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                builds.set(event);
+            }
+        }
+        delegate.onNodeLookup(clazz, hit);
+    }
+
+    @Override
+    public void onNodeBuild(Class<? extends TairaData> clazz, long nanos) {
+        endBuild(clazz, null);
+        delegate.onNodeBuild(clazz, nanos);
+    }
+
+    @Override
+    public void onError(Class<? extends TairaData> clazz, RuntimeException e) {
+        // a build still open failed, along with its call if any
+        endBuild(clazz, e);
+        endCall(null, clazz, 0, e);
+        delegate.onError(clazz, e);
+    }
+
+    /**
+     * @param operation null if not known on failure
+     */
+    private void endCall(String operation, Class<? extends TairaData> clazz, int bytes, RuntimeException e) {
+        TairaCallEvent event = calls.get();
+        if (event == null) {
+            return;
+        }
+        calls.set(null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.className = clazz == null ? null : clazz.getName();
+            event.size = bytes;
+            event.failure = e == null ? null : e.toString();
+            event.commit();
+        }
+    }
+
+    private void endBuild(Class<? extends TairaData> clazz, RuntimeException e) {
+        TairaNodeBuildEvent event = builds.get();
+        if (event == null) {
+            return;
+        }
+        builds.set(null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.className = clazz == null ? null : clazz.getName();
+            event.failure = e == null ? null : e.toString();
+            event.commit();
+        }
+    }
+}
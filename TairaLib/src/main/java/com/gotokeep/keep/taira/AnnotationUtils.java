@@ -30,6 +30,7 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Taira annotation related utils
@@ -49,8 +50,11 @@ class AnnotationUtils {
 
     /**
      * cache a check-passed class type
+     *
+     * concurrent set, checks are idempotent so racing threads may both check a class before it is cached
      */
-    private static final Set<Class<? extends TairaData>> ANNOTATION_CHECK_CACHE = new HashSet<>();
+    private static final Set<Class<? extends TairaData>> ANNOTATION_CHECK_CACHE = Collections.newSetFromMap(
+        new ConcurrentHashMap<Class<? extends TairaData>, Boolean>());
 
     private AnnotationUtils() {}
 
@@ -117,8 +121,8 @@ class AnnotationUtils {
             // collection & other typed array
             if (TairaTypeConst.isSupportedCollection(fieldType) || fieldType.isArray()) {
                 Class memberType = ReflectionUtils.getCollectionFirstMemberType(field);
-                // abstract or interface member type not supported
-                if (ReflectionUtils.isInterfaceOrAbstract(memberType)) {
+                // abstract or interface member type not supported, primitive class objects are reported abstract
+                if (!memberType.isPrimitive() && ReflectionUtils.isInterfaceOrAbstract(memberType)) {
                     throw new TairaAnnotationException(
                         "Member type of collection field [" + field.getName() + "] in class [" + clazz.getName()
                             + "] should not be interface or abstract");
@@ -158,8 +162,23 @@ class AnnotationUtils {
                 "[order] on field [" + field.getName() + "] in class [" + clazz.getName() + "] is not sequential");
         }
 
+        // check bits
+        if (annotation.bits() != 0) {
+            checkBitsUsage(field, clazz, primitive, annotation);
+        }
+
+        // check encoding
+        if (annotation.encoding() != ParamField.Encoding.FIXED) {
+            checkEncodingUsage(field, clazz, primitive, annotation);
+        }
+
+        // check prefix
+        if (annotation.prefix() != 0) {
+            checkPrefixUsage(field, clazz, annotation);
+        }
+
         // check String & byte[]
-        if (TairaTypeConst.isByteArray(field) && annotation.bytes() <= 0) {
+        if (TairaTypeConst.isByteArray(field) && annotation.bytes() <= 0 && annotation.prefix() <= 0) {
             // non-recursive byte array can pass
             if (!isRecursive) {
                 return;
@@ -174,9 +193,19 @@ class AnnotationUtils {
                 + "] is too large (which should be lesser than or equal to " + primitive.byteSize() + ")");
         }
 
+        // check primitive array member bytes overflow
+        if (TairaTypeConst.isPrimitiveArray(field) && annotation.bytes() > 0) {
+            TairaPrimitive memberPrimitive = TairaTypeConst.findPrimitive(field.getType().getComponentType());
+            if (annotation.bytes() > memberPrimitive.byteSize()) {
+                throw new TairaAnnotationException("[bytes] on field [" + field.getName() + "] in class ["
+                    + clazz.getName() + "] is too large (which should be lesser than or equal to "
+                    + memberPrimitive.byteSize() + ")");
+            }
+        }
+
         // check collection & array length
-        if (!TairaTypeConst.isByteArray(field) && (TairaTypeConst.isSupportedCollection(field.getType())
-            || field.getType().isArray())) {
+        if (!TairaTypeConst.isByteArray(field) && annotation.prefix() <= 0
+            && (TairaTypeConst.isSupportedCollection(field.getType()) || field.getType().isArray())) {
             // tail field without length
             if (fieldIndex < fieldsSize - 1 && annotation.length() <= 0) {
                 throw new TairaAnnotationException(
@@ -191,6 +220,78 @@ class AnnotationUtils {
         }
     }
 
+    /**
+     * check [bits] on single boolean/integer value or bitset
+     */
+    private static void checkBitsUsage(Field field, Class clazz, TairaPrimitive primitive, ParamField annotation) {
+        String target = "[bits] on field [" + field.getName() + "] in class [" + clazz.getName() + "]";
+        if (annotation.bits() < 0) {
+            throw new TairaAnnotationException(target + " should be positive");
+        }
+        if (annotation.bytes() > 0) {
+            throw new TairaAnnotationException(target + " can not be used with [bytes]");
+        }
+        if (primitive != null && primitive != TairaPrimitive.FLOAT && primitive != TairaPrimitive.DOUBLE) {
+            int maxBits = primitive == TairaPrimitive.BOOLEAN ? 1 : primitive.byteSize() * 8;
+            if (annotation.bits() > maxBits) {
+                throw new TairaAnnotationException(
+                    target + " is too large (which should be lesser than or equal to " + maxBits + ")");
+            }
+            return;
+        }
+        Class fieldType = field.getType();
+        if ((!fieldType.isArray() && !List.class.equals(fieldType))
+            || TairaTypeConst.findPrimitive(ReflectionUtils.getCollectionFirstMemberType(field))
+            != TairaPrimitive.BOOLEAN) {
+            throw new TairaAnnotationException(
+                target + " is only supported on boolean, integer types, boolean[] and List<Boolean>");
+        }
+        if (annotation.bits() != 1) {
+            throw new TairaAnnotationException(target + " should be 1 for bitset");
+        }
+        if (annotation.length() <= 0) {
+            throw new TairaAnnotationException(
+                "Bitset field [" + field.getName() + "] in class [" + clazz.getName() + "] should specify [length] value");
+        }
+    }
+
+    /**
+     * check varint [encoding] on integer value or collection
+     */
+    private static void checkEncodingUsage(Field field, Class clazz, TairaPrimitive primitive, ParamField annotation) {
+        String target = "[encoding] on field [" + field.getName() + "] in class [" + clazz.getName() + "]";
+        if (annotation.bytes() > 0 || annotation.bits() > 0) {
+            throw new TairaAnnotationException(target + " can not be used with [bytes] or [bits]");
+        }
+        TairaPrimitive integer = primitive;
+        if (integer == null && (field.getType().isArray() || TairaTypeConst.isSupportedCollection(field.getType()))) {
+            integer = TairaTypeConst.findPrimitive(ReflectionUtils.getCollectionFirstMemberType(field));
+        }
+        if (integer != TairaPrimitive.CHAR && integer != TairaPrimitive.SHORT && integer != TairaPrimitive.INT
+            && integer != TairaPrimitive.LONG) {
+            throw new TairaAnnotationException(
+                target + " is only supported on char, short, int, long and their collections");
+        }
+    }
+
+    /**
+     * check length [prefix] on String, byte[] or collection
+     */
+    private static void checkPrefixUsage(Field field, Class clazz, ParamField annotation) {
+        String target = "[prefix] on field [" + field.getName() + "] in class [" + clazz.getName() + "]";
+        if (annotation.prefix() < 0 || annotation.prefix() > 4) {
+            throw new TairaAnnotationException(target + " should be 1 to 4");
+        }
+        Class fieldType = field.getType();
+        if (!TairaTypeConst.isByteArray(field) && !TairaTypeConst.isSupportedCollection(fieldType)
+            && !fieldType.isArray()) {
+            throw new TairaAnnotationException(target + " is only supported on String, byte[] and collections");
+        }
+        if (annotation.bits() > 0) {
+            throw new TairaAnnotationException(target + " can not be used with [bits]");
+        }
+    }
+
     /**
      * get @ParamField annotated fields, and sort by order value
      *
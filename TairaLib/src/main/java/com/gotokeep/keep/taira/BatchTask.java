@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * fork-join task sizing, encoding or decoding a range of batch records
+ *
+ * fixed-size record i always takes bytes from i * record size. variable-size records are framed like
+ * {@link TairaWriter}, each prefixed with its byte size as an unsigned varint, their sizes are evaluated in parallel
+ * first and prefix-summed into frame offsets by {@link #frameOffsets(int[])}. either way every range works on its
+ * own slice of the shared buffer and output is byte-identical to the sequential loop. ranges are split in halves down
+ * to about {@link #SLICE_BYTES}
+ */
+class BatchTask extends RecursiveAction {
+
+    /**
+     * bytes of records handled by one task without splitting further
+     */
+    private static final int SLICE_BYTES = 64 * 1024;
+
+    private static final int SIZE = 0;
+
+    private static final int ENCODE = 1;
+
+    private static final int DECODE = 2;
+
+    private final int mode;
+
+    private final TairaDataNode root;
+
+    private final Class<? extends TairaData> clazz;
+
+    /**
+     * records to size or encode, null when decoding
+     */
+    private final Object[] objects;
+
+    /**
+     * decoded records, null otherwise
+     */
+    private final Object[] results;
+
+    /**
+     * byte size of each variable-size record without its prefix, null for fixed-size records
+     */
+    private final int[] sizes;
+
+    /**
+     * buffer index of each frame and of the end of the last one, null for fixed-size records
+     */
+    private final int[] offsets;
+
+    /**
+     * shared buffer, not moved by tasks, null when sizing
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * buffer index of the first fixed-size record
+     */
+    private final int base;
+
+    private final ByteOrder order;
+
+    private final int from;
+
+    private final int to;
+
+    private final int sliceCount;
+
+    private BatchTask(int mode, TairaDataNode root, Class<? extends TairaData> clazz, Object[] objects,
+                      Object[] results, int[] sizes, int[] offsets, ByteBuffer buffer, int count) {
+        this.mode = mode;
+        this.root = root;
+        this.clazz = clazz;
+        this.objects = objects;
+        this.results = results;
+        this.sizes = sizes;
+        this.offsets = offsets;
+        this.buffer = buffer;
+        this.base = buffer == null ? 0 : buffer.position();
+        this.order = buffer == null ? null : buffer.order();
+        this.from = 0;
+        this.to = count;
+        int recordBytes = offsets == null || count == 0 ? root.minSize() : (offsets[count] - offsets[0]) / count;
+        this.sliceCount = Math.max(1, SLICE_BYTES / Math.max(1, recordBytes));
+    }
+
+    private BatchTask(BatchTask parent, int from, int to) {
+        this.mode = parent.mode;
+        this.root = parent.root;
+        this.clazz = parent.clazz;
+        this.objects = parent.objects;
+        this.results = parent.results;
+        this.sizes = parent.sizes;
+        this.offsets = parent.offsets;
+        this.buffer = parent.buffer;
+        this.base = parent.base;
+        this.order = parent.order;
+        this.from = from;
+        this.to = to;
+        this.sliceCount = parent.sliceCount;
+    }
+
+    /**
+     * evaluate byte size of each variable-size object of exactly [clazz] into sizes
+     */
+    static BatchTask size(TairaDataNode root, Class<? extends TairaData> clazz, Object[] objects, int[] sizes) {
+        return new BatchTask(SIZE, root, clazz, objects, null, sizes, null, null, objects.length);
+    }
+
+    /**
+     * encode objects of exactly [clazz] into buffer from its position
+     *
+     * @param sizes sizes of variable-size objects, null if fixed size
+     * @param offsets frame offsets from {@link #frameOffsets(int[])}, null if fixed size
+     */
+    static BatchTask encode(TairaDataNode root, Class<? extends TairaData> clazz, Object[] objects, int[] sizes,
+                            int[] offsets, ByteBuffer buffer) {
+        return new BatchTask(ENCODE, root, clazz, objects, null, sizes, offsets, buffer, objects.length);
+    }
+
+    /**
+     * decode records into results from buffer position
+     *
+     * @param offsets buffer index of each frame and of the end of the last one, null if fixed size
+     */
+    static BatchTask decode(TairaDataNode root, Object[] results, int[] offsets, ByteBuffer buffer) {
+        return new BatchTask(DECODE, root, null, null, results, null, offsets, buffer, results.length);
+    }
+
+    /**
+     * prefix-sum frame sizes into buffer indices of frames starting at 0, last element is the total byte size
+     *
+     * @throws TairaIllegalValueException when total byte size is too large
+     */
+    static int[] frameOffsets(int[] sizes) {
+        int[] offsets = new int[sizes.length + 1];
+        long offset = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            offsets[i] = (int) offset;
+            offset += TairaCodec.sizeOfUnsignedVarInt(sizes[i]) + sizes[i];
+            if (offset > Integer.MAX_VALUE) {
+                throw new TairaIllegalValueException("Batch size [" + offset + "] is too large");
+            }
+        }
+        offsets[sizes.length] = (int) offset;
+        return offsets;
+    }
+
+    /**
+     * @throws TairaIllegalValueException when non-null record is not exactly of [clazz]
+     */
+    static void checkClass(Object object, Class<? extends TairaData> clazz) {
+        if (object != null && object.getClass() != clazz) {
+            throw new TairaIllegalValueException("Batch record class [" + object.getClass().getName()
+                + "] differs from [" + clazz.getName() + "]");
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= sliceCount) {
+            run();
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BatchTask(this, from, middle), new BatchTask(this, middle, to));
+    }
+
+    private void run() {
+        if (mode == SIZE) {
+            for (int i = from; i < to; i++) {
+                checkClass(objects[i], clazz);
+                sizes[i] = root.evaluateSize(objects[i]);
+            }
+            return;
+        }
+        ByteBuffer slice = buffer.duplicate().order(order);
+        if (offsets != null) {
+            runFrames(slice);
+            return;
+        }
+        int size = root.minSize();
+        slice.limit(base + to * size);
+        slice.position(base + from * size);
+        for (int i = from; i < to; i++) {
+            if (mode == DECODE) {
+                results[i] = root.deserialize(slice);
+                continue;
+            }
+            checkClass(objects[i], clazz);
+            root.serialize(slice, objects[i]);
+        }
+    }
+
+    /**
+     * every frame is limited to its own bytes, so a variable-size tail field ends with its frame
+     */
+    private void runFrames(ByteBuffer slice) {
+        for (int i = from; i < to; i++) {
+            slice.limit(offsets[i + 1]);
+            slice.position(offsets[i]);
+            if (mode == DECODE) {
+                TairaCodec.readUnsignedVarInt(slice);
+                results[i] = root.deserialize(slice);
+                continue;
+            }
+            checkClass(objects[i], clazz);
+            TairaCodec.writeUnsignedVarInt(slice, sizes[i]);
+            root.serialize(slice, objects[i]);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.lang.reflect.Field;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * node for processing a [bits] field packed in a {@link BitGroupNode}
+ *
+ * a single boolean or unsigned integer value, or a bitset of boolean[], Boolean[] or List&lt;Boolean&gt;. standalone
+ * serialize/deserialize work on the whole group starting at buffer position and keep the bits of other members
+ */
+@SuppressWarnings("unchecked")
+class BitFieldNode extends Node {
+
+    private BitGroupNode group;
+
+    /**
+     * primitive type of single value, BOOLEAN for bitset
+     */
+    private TairaPrimitive type;
+
+    private int bits;
+
+    /**
+     * bitset length, 0 for single value
+     */
+    private int length;
+
+    /**
+     * whether [bits] is lesser than natural bit size, values are range checked only then
+     */
+    private boolean narrowed;
+
+    /**
+     * bit offset in group
+     */
+    private int bitOffset;
+
+    BitFieldNode(Field field, BitGroupNode group, int bitOffset) {
+        super(field);
+        this.group = group;
+        this.bitOffset = bitOffset;
+        ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
+        bits = annotation.bits();
+        if (clazz.isArray() || TairaTypeConst.isSupportedCollection(clazz)) {
+            type = TairaPrimitive.BOOLEAN;
+            length = annotation.length();
+        } else {
+            type = TairaTypeConst.findPrimitive(clazz);
+            narrowed = type != TairaPrimitive.BOOLEAN && bits < type.byteSize() * 8;
+        }
+    }
+
+    /**
+     * single value type, null for bitset
+     */
+    TairaPrimitive type() {
+        return length > 0 ? null : type;
+    }
+
+    /**
+     * bits taken in group
+     */
+    int bitCount() {
+        return length > 0 ? length : bits;
+    }
+
+    @Override
+    public int evaluateSize(Object value) {
+        return group.minSize();
+    }
+
+    @Override
+    public void serialize(ByteBuffer buffer, Object value) {
+        if (buffer.remaining() < group.minSize()) {
+            throw new BufferOverflowException();
+        }
+        write(buffer, buffer.position(), value);
+        buffer.position(buffer.position() + group.minSize());
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer) {
+        if (buffer.remaining() < group.minSize()) {
+            throw new BufferUnderflowException();
+        }
+        Object value = read(buffer, buffer.position());
+        buffer.position(buffer.position() + group.minSize());
+        return value;
+    }
+
+    @Override
+    int minSize() {
+        return group.minSize();
+    }
+
+    @Override
+    int maxSize() {
+        return group.maxSize();
+    }
+
+    /**
+     * read single value bits from group at buffer position
+     */
+    long readBits(ByteBuffer buffer) {
+        return TairaCodec.readBits(buffer, buffer.position(), bitOffset, bits);
+    }
+
+    /**
+     * write single value bits into group at buffer position, range checked when narrowed
+     */
+    void putLong(ByteBuffer buffer, long value) {
+        TairaCodec.writeBits(buffer, buffer.position(), bitOffset, bits, narrowed ? TairaCodec.checkBits(value, bits)
+            : value);
+    }
+
+    /**
+     * write value into group, nothing is written when value is out of range
+     *
+     * @param index absolute index of the first byte of group
+     */
+    void write(ByteBuffer buffer, int index, Object value) {
+        if (length <= 0) {
+            TairaCodec.writeBits(buffer, index, bitOffset, bits, toBits(value));
+            return;
+        }
+        int count = 0;
+        if (value instanceof boolean[]) {
+            boolean[] members = (boolean[]) value;
+            TairaCodec.checkLength(members.length, length, field.getName());
+            for (; count < members.length; count++) {
+                TairaCodec.writeBits(buffer, index, bitOffset + count, 1, members[count] ? 1 : 0);
+            }
+        } else if (value instanceof Boolean[]) {
+            Boolean[] members = (Boolean[]) value;
+            TairaCodec.checkLength(members.length, length, field.getName());
+            for (; count < members.length; count++) {
+                TairaCodec.writeBits(buffer, index, bitOffset + count, 1, Boolean.TRUE.equals(members[count]) ? 1 : 0);
+            }
+        } else if (value != null) {
+            Collection<Boolean> members = (Collection<Boolean>) value;
+            TairaCodec.checkLength(members.size(), length, field.getName());
+            for (Boolean member : members) {
+                TairaCodec.writeBits(buffer, index, bitOffset + count++, 1, Boolean.TRUE.equals(member) ? 1 : 0);
+            }
+        }
+        // clear remains
+        TairaCodec.writeBits(buffer, index, bitOffset + count, length - count, 0);
+    }
+
+    /**
+     * read value from group
+     *
+     * @param index absolute index of the first byte of group
+     */
+    Object read(ByteBuffer buffer, int index) {
+        if (length <= 0) {
+            return fromBits(TairaCodec.readBits(buffer, index, bitOffset, bits));
+        }
+        if (boolean[].class.equals(clazz)) {
+            boolean[] members = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                members[i] = TairaCodec.readBits(buffer, index, bitOffset + i, 1) != 0;
+            }
+            return members;
+        }
+        if (clazz.isArray()) {
+            Boolean[] members = new Boolean[length];
+            for (int i = 0; i < length; i++) {
+                members[i] = TairaCodec.readBits(buffer, index, bitOffset + i, 1) != 0;
+            }
+            return members;
+        }
+        List<Boolean> members = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            members.add(TairaCodec.readBits(buffer, index, bitOffset + i, 1) != 0);
+        }
+        return members;
+    }
+
+    private long toBits(Object value) {
+        long longValue;
+        if (value == null) {
+            longValue = 0;
+        } else if (value instanceof Boolean) {
+            longValue = (Boolean) value ? 1 : 0;
+        } else if (value instanceof Character) {
+            longValue = (Character) value;
+        } else {
+            longValue = ((Number) value).longValue();
+        }
+        return narrowed ? TairaCodec.checkBits(longValue, bits) : longValue;
+    }
+
+    private Object fromBits(long value) {
+        switch (type) {
+            case BOOLEAN:
+                return value != 0;
+            case BYTE:
+                return (byte) value;
+            case CHAR:
+                return (char) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+}
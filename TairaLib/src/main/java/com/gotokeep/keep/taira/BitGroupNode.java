@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaInternalException;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * node for consecutive [bits] fields sharing packed bytes
+ *
+ * a group is not bound to a single field, its members are written and read through the owner object
+ */
+class BitGroupNode extends Node {
+
+    private final List<BitFieldNode> members = new ArrayList<>();
+
+    /**
+     * total bits of members
+     */
+    private int bitCount;
+
+    /**
+     * bytes of packed group, trailing bits are zero
+     */
+    private int bytes;
+
+    /**
+     * @param ownerClass class declaring the member fields
+     */
+    BitGroupNode(Class ownerClass) {
+        super(ownerClass);
+    }
+
+    /**
+     * append a [bits] field after the current members
+     */
+    void add(Field field) {
+        BitFieldNode member = new BitFieldNode(field, this, bitCount);
+        members.add(member);
+        bitCount += member.bitCount();
+        bytes = (bitCount + 7) >>> 3;
+    }
+
+    /**
+     * member field nodes in serialization order
+     */
+    List<BitFieldNode> members() {
+        return members;
+    }
+
+    @Override
+    public int evaluateSize(Object value) {
+        return bytes;
+    }
+
+    /**
+     * serialize members of owner object, value is the owner
+     */
+    @Override
+    public void serialize(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            TairaCodec.pad(buffer, bytes);
+        } else {
+            serializeField(buffer, value);
+        }
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer) {
+        throw new TairaInternalException("Bit group of class [" + clazz.getName() + "] is read into its owner");
+    }
+
+    @Override
+    int minSize() {
+        return bytes;
+    }
+
+    @Override
+    int maxSize() {
+        return bytes;
+    }
+
+    @Override
+    int evaluateFieldSize(Object owner) {
+        return bytes;
+    }
+
+    @Override
+    void serializeField(ByteBuffer buffer, Object owner) {
+        // members only set their own bits
+        int index = TairaCodec.writeBitGroup(buffer, bytes);
+        for (int i = 0; i < members.size(); i++) {
+            BitFieldNode member = members.get(i);
+            member.write(buffer, index, member.accessor.get(owner));
+        }
+    }
+
+    @Override
+    void deserializeField(ByteBuffer buffer, Object owner) {
+        int index = TairaCodec.readBitGroup(buffer, bytes);
+        for (int i = 0; i < members.size(); i++) {
+            BitFieldNode member = members.get(i);
+            member.accessor.set(owner, member.read(buffer, index));
+        }
+    }
+}
@@ -37,45 +37,141 @@ class ByteArrayNode extends Node {
 
     private int bytes;
 
+    /**
+     * length prefix byte size, 0 if not prefixed
+     */
+    private int prefix;
+
+    /**
+     * String field, otherwise byte[]
+     */
+    private boolean isString;
+
     ByteArrayNode(Field field, Charset charset) {
         super(field);
         this.charset = charset;
+        isString = String.class.equals(clazz);
         ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
         bytes = annotation.bytes();
+        prefix = annotation.prefix();
     }
 
     @Override
     public int evaluateSize(Object value) {
+        if (prefix > 0) {
+            return prefix + (value == null ? 0 : contentSize(value));
+        }
         if (bytes <= 0 && value != null) {
-            return valueToByteArray(value).length;
+            return contentSize(value);
         }
         return bytes;
     }
 
+    @Override
+    int minSize() {
+        if (prefix > 0) {
+            return prefix;
+        }
+        return bytes > 0 ? bytes : 0;
+    }
+
+    @Override
+    int maxSize() {
+        if (bytes <= 0) {
+            return TairaSchema.UNBOUNDED;
+        }
+        return prefix + bytes;
+    }
+
+    @Override
+    void skip(ByteBuffer buffer) {
+        if (prefix > 0) {
+            skipBytes(buffer, TairaCodec.readLengthPrefix(buffer, prefix));
+        } else {
+            super.skip(buffer);
+        }
+    }
+
     @Override
     public void serialize(ByteBuffer buffer, Object value) {
-        if (value == null) {
-            buffer.position(buffer.position() + bytes);
+        if (prefix > 0 && isString) {
+            TairaCodec.writePrefixedString(buffer, (String) value, prefix, bytes, charset, field.getName());
+        } else if (prefix > 0) {
+            TairaCodec.writePrefixedBytes(buffer, (byte[]) value, prefix, bytes, field.getName());
+        } else if (isString) {
+            StringCodec.write(buffer, (String) value, bytes, charset, field.getName());
+        } else {
+            writeByteArray(buffer, (byte[]) value, bytes, field.getName());
+        }
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer) {
+        if (prefix > 0) {
+            return isString ? TairaCodec.readPrefixedString(buffer, prefix, charset)
+                : TairaCodec.readPrefixedBytes(buffer, prefix);
+        }
+        if (isString) {
+            return StringCodec.read(buffer, bytes, charset);
+        } else {
+            return readByteArray(buffer, bytes);
+        }
+    }
+
+    /**
+     * check value against [bytes] before writing anything
+     *
+     * @throws TairaIllegalValueException when value is larger than [bytes]
+     */
+    void checkFits(Object value) throws TairaIllegalValueException {
+        if (bytes <= 0 || value == null) {
+            return;
+        }
+        if (contentSize(value) > bytes) {
+            throw new TairaIllegalValueException("Field [" + field.getName() + "] overflow, [bytes] should be larger");
+        }
+    }
+
+    /**
+     * byte size of String or byte[] value itself
+     */
+    private int contentSize(Object value) {
+        return isString ? StringCodec.sizeOf((String) value, charset) : ((byte[]) value).length;
+    }
+
+    /**
+     * write byte array, fill remains when [bytes] specified
+     *
+     * @param bytes [bytes] value, tail field when lesser than or equal to 0
+     */
+    static void writeByteArray(ByteBuffer buffer, byte[] byteValue, int bytes, String fieldName) {
+        if (byteValue == null) {
+            TairaCodec.pad(buffer, bytes);
             return;
         }
-        byte[] byteValue = valueToByteArray(value);
         if (bytes <= 0) {
             // tail without [bytes]
             buffer.put(byteValue);
             return;
         }
         // with [bytes]
-        checkOverflow(byteValue);
+        if (byteValue.length > bytes) {
+            throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [bytes] should be larger");
+        }
         int remainSize = bytes - byteValue.length;
         buffer.put(byteValue);
         if (remainSize > 0) {
             // fill remains
-            buffer.position(buffer.position() + remainSize);
+            TairaCodec.pad(buffer, remainSize);
         }
     }
 
-    @Override
-    public Object deserialize(ByteBuffer buffer) {
+    /**
+     * read byte array
+     *
+     * @param bytes [bytes] value, read all remains when lesser than or equal to 0
+     */
+    static byte[] readByteArray(ByteBuffer buffer, int bytes) {
         byte[] bytesValue;
         if (bytes <= 0) {
             // tail byte array
@@ -84,24 +180,6 @@ class ByteArrayNode extends Node {
             bytesValue = new byte[bytes];
         }
         buffer.get(bytesValue);
-        if (String.class.equals(clazz)) {
-            return new String(bytesValue, charset);
-        } else {
-            return bytesValue;
-        }
-    }
-
-    private void checkOverflow(byte[] array) {
-        if (array.length > bytes) {
-            throw new TairaIllegalValueException("Field [" + field.getName() + "] overflow, [bytes] should be larger");
-        }
-    }
-
-    private byte[] valueToByteArray(Object value) {
-        if (String.class.equals(clazz)) {
-            return ((String) value).getBytes(charset);
-        } else {
-            return (byte[]) value;
-        }
+        return bytesValue;
     }
 }
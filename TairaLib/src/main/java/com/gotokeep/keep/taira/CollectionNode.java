@@ -31,6 +31,8 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * node for processing collection & array
@@ -48,6 +50,11 @@ class CollectionNode extends Node {
      */
     private int length;
 
+    /**
+     * length prefix byte size, 0 if not prefixed
+     */
+    private int prefix;
+
     /**
      * member type
      */
@@ -58,31 +65,77 @@ class CollectionNode extends Node {
      */
     private Node memberNode;
 
+    /**
+     * smallest byte size of a single member, size of every member unless variable size
+     */
+    private int memberByteSize;
+
     CollectionNode(Field field, Charset charset) {
         super(field);
         this.charset = charset;
 
         ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
         length = annotation.length();
+        prefix = annotation.prefix();
         memberType = ReflectionUtils.getCollectionFirstMemberType(field);
-        memberNode = createMemberNode();
+        memberNode = createMemberNode(annotation.encoding());
+        memberByteSize = memberNode.minSize();
     }
 
     @Override
     public int evaluateSize(Object value) {
-        int collectionLength = getCollectionLength(value);
-        int memberByteSize = memberNode.evaluateSize(null);
+        if (!memberNode.isFixedSize()) {
+            return prefix + evaluateMembersSize(value);
+        }
+        if (prefix > 0) {
+            return prefix + getCollectionLength(value) * memberByteSize;
+        }
         if (length <= 0) {
-            return collectionLength * memberByteSize;
+            return getCollectionLength(value) * memberByteSize;
         } else {
             return length * memberByteSize;
         }
     }
 
+    @Override
+    int minSize() {
+        if (prefix > 0) {
+            return prefix;
+        }
+        return length > 0 ? length * memberByteSize : 0;
+    }
+
+    @Override
+    int maxSize() {
+        if (length <= 0 || memberNode.maxSize() == TairaSchema.UNBOUNDED) {
+            return TairaSchema.UNBOUNDED;
+        }
+        return prefix + length * memberNode.maxSize();
+    }
+
+    @Override
+    void skip(ByteBuffer buffer) {
+        if (prefix <= 0 && (length <= 0 || memberNode.isFixedSize())) {
+            super.skip(buffer);
+            return;
+        }
+        int count = prefix > 0 ? TairaCodec.readLengthPrefix(buffer, prefix) : length;
+        if (memberNode.isFixedSize()) {
+            skipBytes(buffer, (long) count * memberByteSize);
+        } else {
+            for (int i = 0; i < count; i++) {
+                memberNode.skip(buffer);
+            }
+        }
+    }
+
     @Override
     public void serialize(ByteBuffer buffer, Object value) {
         int collectionLength = getCollectionLength(value);
         checkOverflow(collectionLength);
+        if (prefix > 0) {
+            TairaCodec.writeLengthPrefix(buffer, collectionLength, prefix, field.getName());
+        }
         serializeMembers(buffer, value);
     }
 
@@ -97,7 +150,12 @@ class CollectionNode extends Node {
         if (collection == null) {
             return null;
         }
-        if (length <= 0) {
+        if (prefix > 0) {
+            int count = TairaCodec.readLengthPrefix(buffer, prefix);
+            for (int i = 0; i < count; i++) {
+                collection.add(memberNode.deserialize(buffer));
+            }
+        } else if (length <= 0) {
             // buffer tail
             while (buffer.position() < buffer.limit()) {
                 collection.add(memberNode.deserialize(buffer));
@@ -108,15 +166,23 @@ class CollectionNode extends Node {
             }
         }
         if (clazz.isArray()) {
-            return collection.toArray((Object[]) Array.newInstance(memberType, collection.size()));
+            // primitive members of varint arrays are unboxed by Array.set
+            Object array = Array.newInstance(memberType, collection.size());
+            int i = 0;
+            for (Object member : collection) {
+                Array.set(array, i++, member);
+            }
+            return array;
         } else {
             return collection;
         }
     }
 
-    private Node createMemberNode() {
+    private Node createMemberNode(ParamField.Encoding encoding) {
         TairaPrimitive primitive = TairaTypeConst.findPrimitive(memberType);
-        if (primitive != null) {
+        if (primitive != null && encoding != ParamField.Encoding.FIXED) {
+            return new VarIntNode(memberType, primitive, encoding);
+        } else if (primitive != null) {
             return new PrimitiveNode(memberType, primitive);
         } else if (TairaTypeConst.isTairaClass(memberType)) {
             return new TairaDataNode(memberType, charset);
@@ -138,22 +204,45 @@ class CollectionNode extends Node {
         return 0;
     }
 
+    /**
+     * byte size of variable-size members, missing members take the smallest size
+     */
+    private int evaluateMembersSize(Object value) {
+        int collectionLength = getCollectionLength(value);
+        int size = length > 0 && prefix <= 0 ? (length - collectionLength) * memberByteSize : 0;
+        if (clazz.isArray()) {
+            for (int i = 0; i < collectionLength; i++) {
+                size += memberNode.evaluateSize(Array.get(value, i));
+            }
+        } else if (value != null) {
+            for (Object member : (Collection) value) {
+                size += memberNode.evaluateSize(member);
+            }
+        }
+        return size;
+    }
+
     private void serializeMembers(ByteBuffer buffer, Object value) {
         int collectionLength = getCollectionLength(value);
         if (clazz.isArray()) {
             for (int i = 0; i < collectionLength; i++) {
                 memberNode.serialize(buffer, Array.get(value, i));
             }
-        } else {
+        } else if (value instanceof List && value instanceof RandomAccess) {
+            // indexed access, no iterator allocated
+            List list = (List) value;
+            for (int i = 0; i < collectionLength; i++) {
+                memberNode.serialize(buffer, list.get(i));
+            }
+        } else if (value != null) {
             Collection collection = (Collection) value;
             for (Object member : collection) {
                 memberNode.serialize(buffer, member);
             }
         }
         // node with length, fill remain empty bytes
-        if (length > 0) {
-            int memberByteSize = memberNode.evaluateSize(null);
-            buffer.position(buffer.position() + (length - collectionLength) * memberByteSize);
+        if (length > 0 && prefix <= 0) {
+            TairaCodec.pad(buffer, (length - collectionLength) * memberByteSize);
         }
     }
 
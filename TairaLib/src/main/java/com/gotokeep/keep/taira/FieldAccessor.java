@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+/**
+ * read/write one field, resolved once per node
+ */
+interface FieldAccessor {
+
+    /**
+     * get field value from target
+     */
+    Object get(Object target);
+
+    /**
+     * set field value into target
+     */
+    void set(Object target, Object value);
+
+    // primitive typed access without boxing, only valid for a field of the exact primitive type
+
+    boolean getBoolean(Object target);
+
+    void setBoolean(Object target, boolean value);
+
+    byte getByte(Object target);
+
+    void setByte(Object target, byte value);
+
+    char getChar(Object target);
+
+    void setChar(Object target, char value);
+
+    short getShort(Object target);
+
+    void setShort(Object target, short value);
+
+    int getInt(Object target);
+
+    void setInt(Object target, int value);
+
+    long getLong(Object target);
+
+    void setLong(Object target, long value);
+
+    float getFloat(Object target);
+
+    void setFloat(Object target, float value);
+
+    double getDouble(Object target);
+
+    void setDouble(Object target, double value);
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaInternalException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * MethodHandle based accessors
+ *
+ * handles are unreflected once, so invocations skip the per-call access checks of reflection. Only loaded when
+ * java.lang.invoke is available, see {@link ReflectionUtils#createFieldAccessor(Field)}
+ */
+final class MethodHandleAccessors {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private MethodHandleAccessors() {}
+
+    static FieldAccessor createFieldAccessor(Field field) throws IllegalAccessException {
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle getter = lookup.unreflectGetter(field);
+        MethodHandle setter = lookup.unreflectSetter(field);
+        Class<?> type = field.getType();
+        MethodHandle primitiveGetter = null;
+        MethodHandle primitiveSetter = null;
+        if (type.isPrimitive()) {
+            primitiveGetter = getter.asType(MethodType.methodType(type, Object.class));
+            primitiveSetter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+        }
+        return new MethodHandleFieldAccessor(getter.asType(GETTER_TYPE), setter.asType(SETTER_TYPE), primitiveGetter,
+            primitiveSetter);
+    }
+
+    static InstanceFactory createInstanceFactory(Class<?> clazz) throws IllegalAccessException, NoSuchMethodException {
+        Constructor<?> constructor = clazz.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return new MethodHandleInstanceFactory(
+            MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE));
+    }
+
+    private static TairaInternalException wrap(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new TairaInternalException(throwable);
+    }
+
+    private static class MethodHandleFieldAccessor implements FieldAccessor {
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        /**
+         * (Object)P getter of primitive field, null if not primitive
+         */
+        private final MethodHandle primitiveGetter;
+
+        /**
+         * (Object, P)void setter of primitive field, null if not primitive
+         */
+        private final MethodHandle primitiveSetter;
+
+        MethodHandleFieldAccessor(MethodHandle getter, MethodHandle setter, MethodHandle primitiveGetter,
+                                  MethodHandle primitiveSetter) {
+            this.getter = getter;
+            this.setter = setter;
+            this.primitiveGetter = primitiveGetter;
+            this.primitiveSetter = primitiveSetter;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(Object target) {
+            try {
+                return (boolean) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setBoolean(Object target, boolean value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public byte getByte(Object target) {
+            try {
+                return (byte) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setByte(Object target, byte value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public char getChar(Object target) {
+            try {
+                return (char) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setChar(Object target, char value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public short getShort(Object target) {
+            try {
+                return (short) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setShort(Object target, short value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public int getInt(Object target) {
+            try {
+                return (int) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            try {
+                return (long) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public float getFloat(Object target) {
+            try {
+                return (float) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setFloat(Object target, float value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            try {
+                return (double) primitiveGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public void setDouble(Object target, double value) {
+            try {
+                primitiveSetter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+    }
+
+    private static class MethodHandleInstanceFactory implements InstanceFactory {
+
+        private final MethodHandle constructor;
+
+        MethodHandleInstanceFactory(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object newInstance() {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Throwable e) {
+                throw wrap(e);
+            }
+        }
+    }
+}
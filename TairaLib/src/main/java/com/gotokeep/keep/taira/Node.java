@@ -22,6 +22,7 @@
 package com.gotokeep.keep.taira;
 
 import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 
 /**
@@ -39,6 +40,11 @@ abstract class Node {
      */
     Field field;
 
+    /**
+     * node field accessor, null if field is null
+     */
+    FieldAccessor accessor;
+
     Node(Class clazz) {
         this.clazz = clazz;
     }
@@ -46,6 +52,7 @@ abstract class Node {
     Node(Field field) {
         this.field = field;
         this.clazz = field.getType();
+        this.accessor = ReflectionUtils.createFieldAccessor(field);
     }
 
     /**
@@ -64,4 +71,69 @@ abstract class Node {
      * deserialize current node to object from buffer
      */
     public abstract Object deserialize(ByteBuffer buffer);
+
+    /**
+     * smallest byte size of current node, known without a value
+     */
+    abstract int minSize();
+
+    /**
+     * largest byte size of current node, {@link TairaSchema#UNBOUNDED} if not bounded
+     */
+    abstract int maxSize();
+
+    /**
+     * whether current node always has the same byte size
+     */
+    boolean isFixedSize() {
+        return minSize() == maxSize();
+    }
+
+    /**
+     * move buffer past current node without decoding it, variable-size tail reaches buffer limit
+     *
+     * @throws BufferUnderflowException when buffer ends before current node does
+     */
+    void skip(ByteBuffer buffer) {
+        if (isFixedSize()) {
+            skipBytes(buffer, minSize());
+        } else {
+            buffer.position(buffer.limit());
+        }
+    }
+
+    /**
+     * move buffer position forward by [size] bytes
+     *
+     * @throws BufferUnderflowException when fewer bytes remain, buffer position is left unchanged
+     */
+    static void skipBytes(ByteBuffer buffer, long size) {
+        if (size > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + (int) size);
+    }
+
+    /**
+     * evaluate byte size of current field in owner object
+     *
+     * @param owner object declaring current field, may be null
+     */
+    int evaluateFieldSize(Object owner) {
+        return evaluateSize(owner == null ? null : accessor.get(owner));
+    }
+
+    /**
+     * serialize current field of owner object into buffer
+     */
+    void serializeField(ByteBuffer buffer, Object owner) {
+        serialize(buffer, accessor.get(owner));
+    }
+
+    /**
+     * deserialize current field from buffer into owner object
+     */
+    void deserializeField(ByteBuffer buffer, Object owner) {
+        accessor.set(owner, deserialize(buffer));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.annotation.ParamField;
+import com.gotokeep.keep.taira.exception.TairaInternalException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * node for processing primitive arrays (boolean[], char[], short[], int[], long[], float[], double[])
+ *
+ * members are written in bulk through {@link TairaCodec}, no boxing on this path
+ */
+class PrimitiveArrayNode extends Node {
+
+    /**
+     * member primitive type
+     */
+    private TairaPrimitive memberType;
+
+    /**
+     * length defined in ParamField
+     */
+    private int length;
+
+    /**
+     * length prefix byte size, 0 if not prefixed
+     */
+    private int prefix;
+
+    /**
+     * byte size of a single member, [bytes] when narrowed otherwise natural byte size
+     */
+    private int memberByteSize;
+
+    PrimitiveArrayNode(Field field, TairaPrimitive memberType) {
+        super(field);
+        this.memberType = memberType;
+        ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
+        length = annotation.length();
+        prefix = annotation.prefix();
+        int bytes = annotation.bytes();
+        memberByteSize = bytes > 0 && bytes < memberType.byteSize() ? bytes : memberType.byteSize();
+    }
+
+    @Override
+    public int evaluateSize(Object value) {
+        if (length <= 0 || prefix > 0) {
+            return prefix + (value == null ? 0 : Array.getLength(value)) * memberByteSize;
+        } else {
+            return length * memberByteSize;
+        }
+    }
+
+    @Override
+    int minSize() {
+        if (prefix > 0) {
+            return prefix;
+        }
+        return length > 0 ? length * memberByteSize : 0;
+    }
+
+    @Override
+    int maxSize() {
+        return length > 0 ? prefix + length * memberByteSize : TairaSchema.UNBOUNDED;
+    }
+
+    @Override
+    void skip(ByteBuffer buffer) {
+        if (prefix > 0) {
+            int count = TairaCodec.readLengthPrefix(buffer, prefix);
+            skipBytes(buffer, (long) count * memberByteSize);
+        } else {
+            super.skip(buffer);
+        }
+    }
+
+    @Override
+    public void serialize(ByteBuffer buffer, Object value) {
+        String fieldName = field.getName();
+        int length = this.length;
+        if (prefix > 0) {
+            int count = value == null ? 0 : Array.getLength(value);
+            TairaCodec.checkLength(count, length, fieldName);
+            TairaCodec.writeLengthPrefix(buffer, count, prefix, fieldName);
+            // members follow the prefix without padding
+            length = 0;
+        }
+        switch (memberType) {
+            case BOOLEAN:
+                TairaCodec.writeBooleans(buffer, (boolean[]) value, length, fieldName);
+                break;
+            case CHAR:
+                TairaCodec.writeChars(buffer, (char[]) value, length, memberByteSize, fieldName);
+                break;
+            case SHORT:
+                TairaCodec.writeShorts(buffer, (short[]) value, length, memberByteSize, fieldName);
+                break;
+            case INT:
+                TairaCodec.writeInts(buffer, (int[]) value, length, memberByteSize, fieldName);
+                break;
+            case LONG:
+                TairaCodec.writeLongs(buffer, (long[]) value, length, memberByteSize, fieldName);
+                break;
+            case FLOAT:
+                TairaCodec.writeFloats(buffer, (float[]) value, length, memberByteSize, fieldName);
+                break;
+            case DOUBLE:
+                TairaCodec.writeDoubles(buffer, (double[]) value, length, memberByteSize, fieldName);
+                break;
+            default:
+                throw unsupported();
+        }
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer) {
+        int length = this.length;
+        if (prefix > 0) {
+            length = TairaCodec.readLengthPrefix(buffer, prefix);
+            if (length == 0) {
+                // bulk readers take 0 as reading all remains
+                return Array.newInstance(clazz.getComponentType(), 0);
+            }
+        }
+        switch (memberType) {
+            case BOOLEAN:
+                return TairaCodec.readBooleans(buffer, length);
+            case CHAR:
+                return TairaCodec.readChars(buffer, length, memberByteSize);
+            case SHORT:
+                return TairaCodec.readShorts(buffer, length, memberByteSize);
+            case INT:
+                return TairaCodec.readInts(buffer, length, memberByteSize);
+            case LONG:
+                return TairaCodec.readLongs(buffer, length, memberByteSize);
+            case FLOAT:
+                return TairaCodec.readFloats(buffer, length, memberByteSize);
+            case DOUBLE:
+                return TairaCodec.readDoubles(buffer, length, memberByteSize);
+            default:
+                throw unsupported();
+        }
+    }
+
+    private TairaInternalException unsupported() {
+        // byte[] is handled by ByteArrayNode, something is wrong with annotation check
+        return new TairaInternalException(
+            "Illegal field type [" + field.getType() + "] in class [" + field.getDeclaringClass().getName() + "]");
+    }
+}
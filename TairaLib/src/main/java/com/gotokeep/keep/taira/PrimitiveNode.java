@@ -29,6 +29,8 @@ import java.nio.ByteBuffer;
 
 /**
  * node for processing primitive type
+ *
+ * primitive typed fields are read/written through typed accessors, no boxing on this path
  */
 class PrimitiveNode extends Node {
 
@@ -36,6 +38,16 @@ class PrimitiveNode extends Node {
 
     private int bytes;
 
+    /**
+     * whether [bytes] is lesser than natural byte size, values are range checked only then
+     */
+    private boolean narrowed;
+
+    /**
+     * exclusive upper bound of a narrowed value, lower bound is -maxValue
+     */
+    private long maxValue;
+
     /**
      * collection member node without field
      */
@@ -53,6 +65,10 @@ class PrimitiveNode extends Node {
         this.field = field;
         this.type = type;
         bytes = evaluatePrimitiveSize(field);
+        narrowed = bytes < type.byteSize();
+        if (narrowed) {
+            maxValue = 1L << (8 * bytes - 1);
+        }
     }
 
     @Override
@@ -71,6 +87,117 @@ class PrimitiveNode extends Node {
         return type.deserialize(buffer, bytes);
     }
 
+    @Override
+    int minSize() {
+        return bytes;
+    }
+
+    @Override
+    int maxSize() {
+        return bytes;
+    }
+
+    @Override
+    int evaluateFieldSize(Object owner) {
+        return bytes;
+    }
+
+    @Override
+    void serializeField(ByteBuffer buffer, Object owner) {
+        if (!clazz.isPrimitive()) {
+            super.serializeField(buffer, owner);
+            return;
+        }
+        switch (type) {
+            case BOOLEAN:
+                TairaPrimitive.putBoolean(buffer, accessor.getBoolean(owner));
+                break;
+            case BYTE:
+                buffer.put(accessor.getByte(owner));
+                break;
+            case CHAR:
+                putLong(buffer, accessor.getChar(owner));
+                break;
+            case SHORT:
+                putLong(buffer, accessor.getShort(owner));
+                break;
+            case INT:
+                putLong(buffer, accessor.getInt(owner));
+                break;
+            case LONG:
+                putLong(buffer, accessor.getLong(owner));
+                break;
+            case FLOAT:
+                putFloat(buffer, accessor.getFloat(owner));
+                break;
+            case DOUBLE:
+                putDouble(buffer, accessor.getDouble(owner));
+                break;
+            default:
+                super.serializeField(buffer, owner);
+                break;
+        }
+    }
+
+    @Override
+    void deserializeField(ByteBuffer buffer, Object owner) {
+        if (!clazz.isPrimitive()) {
+            super.deserializeField(buffer, owner);
+            return;
+        }
+        switch (type) {
+            case BOOLEAN:
+                accessor.setBoolean(owner, TairaPrimitive.getBoolean(buffer));
+                break;
+            case BYTE:
+                accessor.setByte(owner, buffer.get());
+                break;
+            case CHAR:
+                accessor.setChar(owner, (char) TairaPrimitive.getBytesToLong(buffer, bytes));
+                break;
+            case SHORT:
+                accessor.setShort(owner, (short) TairaPrimitive.getSignedBytesToLong(buffer, bytes));
+                break;
+            case INT:
+                accessor.setInt(owner, (int) TairaPrimitive.getSignedBytesToLong(buffer, bytes));
+                break;
+            case LONG:
+                accessor.setLong(owner, TairaPrimitive.getSignedBytesToLong(buffer, bytes));
+                break;
+            case FLOAT:
+                accessor.setFloat(owner, Float.intBitsToFloat((int) TairaPrimitive.getBytesToLong(buffer, bytes)));
+                break;
+            case DOUBLE:
+                accessor.setDouble(owner, Double.longBitsToDouble(TairaPrimitive.getBytesToLong(buffer, bytes)));
+                break;
+            default:
+                super.deserializeField(buffer, owner);
+                break;
+        }
+    }
+
+    TairaPrimitive type() {
+        return type;
+    }
+
+    /**
+     * read value at buffer position as raw bits, narrowed integers sign-extended, floating values as Float/Double bits
+     */
+    long readBits(ByteBuffer buffer) {
+        switch (type) {
+            case BOOLEAN:
+                return TairaPrimitive.getBoolean(buffer) ? 1 : 0;
+            case BYTE:
+                return buffer.get();
+            case SHORT:
+            case INT:
+            case LONG:
+                return TairaPrimitive.getSignedBytesToLong(buffer, bytes);
+            default:
+                return TairaPrimitive.getBytesToLong(buffer, bytes);
+        }
+    }
+
     /**
      * evaluate size
      *
@@ -86,22 +213,69 @@ class PrimitiveNode extends Node {
         return annotationLength;
     }
 
+    /**
+     * write integer value of char/short/int/long node with [bytes] range check
+     */
+    void putLong(ByteBuffer buffer, long value) {
+        if (narrowed && (value < -maxValue || value >= maxValue)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, value, bytes);
+    }
+
+    void putFloat(ByteBuffer buffer, float value) {
+        if (narrowed && isOverflow(value)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, Float.floatToRawIntBits(value), bytes);
+    }
+
+    void putDouble(ByteBuffer buffer, double value) {
+        if (narrowed && isOverflow(value)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, Double.doubleToRawLongBits(value), bytes);
+    }
+
+    private boolean isOverflow(double value) {
+        return value < -maxValue || value >= maxValue;
+    }
+
     private void checkOverflow(Object value) throws TairaIllegalValueException {
-        if (type.byteSize() <= 1 || value == null) {
+        if (!narrowed || value == null) {
             return;
         }
         // check value overflow when [bytes] specified
-        double doubleValue;
-        if (TairaPrimitive.CHAR.canProcess(clazz)) {
-            // char to number
-            doubleValue = Character.getNumericValue((Character) value);
+        boolean overflow;
+        if (value instanceof Character) {
+            overflow = isOverflow((long) (Character) value, bytes);
+        } else if (value instanceof Float || value instanceof Double) {
+            overflow = isOverflow(((Number) value).doubleValue());
         } else {
-            doubleValue = ((Number) value).doubleValue();
+            overflow = isOverflow(((Number) value).longValue(), bytes);
         }
-        double max = Math.pow(2, 8 * bytes - 1);
-        if (doubleValue >= -max && doubleValue < max) {
-            return;
+        if (overflow) {
+            throw overflow(value);
         }
-        throw new TairaIllegalValueException("Value [" + value + "] overflow, [bytes] should be larger");
+    }
+
+    private static TairaIllegalValueException overflow(Object value) {
+        return new TairaIllegalValueException("Value [" + value + "] overflow, [bytes] should be larger");
+    }
+
+    /**
+     * whether integer value can not be stored in signed lower bytes
+     */
+    static boolean isOverflow(long value, int bytes) {
+        long max = 1L << (8 * bytes - 1);
+        return value < -max || value >= max;
+    }
+
+    /**
+     * whether floating value can not be stored in signed lower bytes
+     */
+    static boolean isOverflow(double value, int bytes) {
+        double max = 1L << (8 * bytes - 1);
+        return value < -max || value >= max;
     }
 }
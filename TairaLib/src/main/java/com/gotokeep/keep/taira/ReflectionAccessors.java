@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaInternalException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * reflective accessors, fallback for runtimes without java.lang.invoke
+ *
+ * access checks are suppressed once when created instead of on every call
+ */
+final class ReflectionAccessors {
+
+    private ReflectionAccessors() {}
+
+    static FieldAccessor createFieldAccessor(Field field) {
+        try {
+            field.setAccessible(true);
+        } catch (SecurityException e) {
+            throw new TairaInternalException(e);
+        }
+        return new ReflectionFieldAccessor(field);
+    }
+
+    static InstanceFactory createInstanceFactory(Class<?> clazz) {
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return new ReflectionInstanceFactory(constructor);
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new TairaInternalException(e);
+        }
+    }
+
+    private static class ReflectionFieldAccessor implements FieldAccessor {
+
+        private final Field field;
+
+        ReflectionFieldAccessor(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            try {
+                field.set(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(Object target) {
+            try {
+                return field.getBoolean(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setBoolean(Object target, boolean value) {
+            try {
+                field.setBoolean(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public byte getByte(Object target) {
+            try {
+                return field.getByte(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setByte(Object target, byte value) {
+            try {
+                field.setByte(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public char getChar(Object target) {
+            try {
+                return field.getChar(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setChar(Object target, char value) {
+            try {
+                field.setChar(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public short getShort(Object target) {
+            try {
+                return field.getShort(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setShort(Object target, short value) {
+            try {
+                field.setShort(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public int getInt(Object target) {
+            try {
+                return field.getInt(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            try {
+                field.setInt(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            try {
+                return field.getLong(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            try {
+                field.setLong(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public float getFloat(Object target) {
+            try {
+                return field.getFloat(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setFloat(Object target, float value) {
+            try {
+                field.setFloat(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            try {
+                return field.getDouble(target);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+
+        @Override
+        public void setDouble(Object target, double value) {
+            try {
+                field.setDouble(target, value);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+    }
+
+    private static class ReflectionInstanceFactory implements InstanceFactory {
+
+        private final Constructor<?> constructor;
+
+        ReflectionInstanceFactory(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
+                | InvocationTargetException e) {
+                throw new TairaInternalException(e);
+            }
+        }
+    }
+}
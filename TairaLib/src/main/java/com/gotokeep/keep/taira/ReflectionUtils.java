@@ -23,14 +23,22 @@ package com.gotokeep.keep.taira;
 
 import com.gotokeep.keep.taira.exception.TairaInternalException;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * reflection utils
@@ -38,6 +46,11 @@ import java.util.List;
 @SuppressWarnings({ "unchecked" })
 public class ReflectionUtils {
 
+    /**
+     * whether java.lang.invoke is available, not on Android before API 26
+     */
+    private static final boolean METHOD_HANDLES_SUPPORTED = isClassExists("java.lang.invoke.MethodHandles");
+
     private ReflectionUtils() {}
 
     /**
@@ -196,6 +209,70 @@ public class ReflectionUtils {
         return null;
     }
 
+    /**
+     * resolve field accessor once, MethodHandle based when supported
+     *
+     * @param field field
+     * @return accessor
+     */
+    static FieldAccessor createFieldAccessor(Field field) {
+        if (METHOD_HANDLES_SUPPORTED) {
+            try {
+                return MethodHandleAccessors.createFieldAccessor(field);
+            } catch (IllegalAccessException | SecurityException | UnsupportedOperationException e) {
+                TairaTypeConst.log("ReflectionUtils", "Fallback to reflection for field " + field + ": " + e);
+            }
+        }
+        return ReflectionAccessors.createFieldAccessor(field);
+    }
+
+    /**
+     * resolve non-parameter constructor once, MethodHandle based when supported
+     *
+     * @param clazz class type
+     * @return instance factory
+     */
+    static InstanceFactory createInstanceFactory(Class<?> clazz) {
+        if (METHOD_HANDLES_SUPPORTED) {
+            try {
+                return MethodHandleAccessors.createInstanceFactory(clazz);
+            } catch (IllegalAccessException | NoSuchMethodException | SecurityException
+                | UnsupportedOperationException e) {
+                TairaTypeConst.log("ReflectionUtils", "Fallback to reflection for class " + clazz + ": " + e);
+            }
+        }
+        return ReflectionAccessors.createInstanceFactory(clazz);
+    }
+
+    private static boolean isClassExists(String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * load compile-time generated serializer of a TairaData class
+     *
+     * @param clazz TairaData class type
+     * @return serializer instance, null if not generated
+     */
+    static TairaSerializer findGeneratedSerializer(Class<?> clazz) {
+        String packagePrefix = clazz.getPackage() == null ? "" : clazz.getPackage().getName() + ".";
+        String simpleName = clazz.getName().substring(packagePrefix.length()).replace('$', '_');
+        try {
+            Class<?> serializerClass = Class.forName(packagePrefix + simpleName + TairaSerializer.GENERATED_SUFFIX,
+                true, clazz.getClassLoader());
+            return (TairaSerializer) serializerClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InstantiationException | IllegalAccessException | ClassCastException e) {
+            throw new TairaInternalException(e);
+        }
+    }
+
     /**
      * check class inheritance
      *
@@ -214,4 +291,70 @@ public class ReflectionUtils {
         return clazz != null && (Modifier.isAbstract(clazz.getModifiers()) || Modifier.isInterface(
             clazz.getModifiers()));
     }
+
+    /**
+     * find concrete TairaData classes in a package and its sub packages, from directories and jars of the class path
+     *
+     * classes are loaded without initializing, dex class paths (Android) can not be listed and find nothing
+     *
+     * @param packageName package name, e.g. com.example.model
+     * @param loader class loader to list and load classes with
+     * @return classes in no particular order
+     */
+    static List<Class<? extends TairaData>> findTairaClasses(String packageName, ClassLoader loader) {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                if ("file".equals(resource.getProtocol())) {
+                    listDirectory(new File(URLDecoder.decode(resource.getFile(), "UTF-8")), packageName, classNames);
+                } else if ("jar".equals(resource.getProtocol())) {
+                    listJar(((JarURLConnection) resource.openConnection()).getJarFile(), path, classNames);
+                }
+            }
+        } catch (IOException | ClassCastException e) {
+            throw new TairaInternalException(e);
+        }
+        List<Class<? extends TairaData>> classes = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+            if (isParentClass(TairaData.class, clazz) && !isInterfaceOrAbstract(clazz) && !clazz.isAnonymousClass()
+                && (clazz.getEnclosingClass() == null || Modifier.isStatic(clazz.getModifiers()))) {
+                classes.add((Class<? extends TairaData>) clazz);
+            }
+        }
+        return classes;
+    }
+
+    private static void listDirectory(File directory, String packageName, List<String> classNames) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                listDirectory(file, packageName + "." + name, classNames);
+            } else if (name.endsWith(".class")) {
+                classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length()));
+            }
+        }
+    }
+
+    private static void listJar(JarFile jar, String path, List<String> classNames) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(path + "/") && name.endsWith(".class")) {
+                classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+    }
 }
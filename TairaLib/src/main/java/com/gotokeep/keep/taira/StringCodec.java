@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+import com.gotokeep.keep.taira.exception.TairaInternalException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * encode String straight into output buffer with a per-thread CharsetEncoder
+ *
+ * malformed and unmappable chars are replaced the same way as String.getBytes(charset), so output is identical
+ */
+final class StringCodec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * scratch larger than this is not kept after use
+     */
+    private static final int MAX_RETAINED_SCRATCH = 64 * 1024;
+
+    private static final ThreadLocal<StringCodec> LOCAL = new ThreadLocal<StringCodec>() {
+        @Override
+        protected StringCodec initialValue() {
+            return new StringCodec();
+        }
+    };
+
+    private Charset charset;
+
+    private CharsetEncoder encoder;
+
+    /**
+     * encoded bytes of [measured], for charsets without a counting shortcut
+     */
+    private ByteBuffer scratch;
+
+    private String measured;
+
+    /**
+     * reusable encoder input, chars of the String being encoded are copied here instead of wrapping it
+     */
+    private CharBuffer chars = CharBuffer.allocate(64);
+
+    private StringCodec() {
+    }
+
+    /**
+     * exact byte size of value encoded with charset
+     *
+     * UTF-8/US-ASCII/ISO-8859-1 are counted without encoding, other charsets are encoded once into a per-thread
+     * scratch buffer which the following write of the same String reuses
+     */
+    static int sizeOf(String value, Charset charset) {
+        if (UTF_8.equals(charset)) {
+            return utf8Length(value);
+        }
+        if (US_ASCII.equals(charset) || ISO_8859_1.equals(charset)) {
+            // one byte per code point, unmappable ones become '?'
+            return value.codePointCount(0, value.length());
+        }
+        return LOCAL.get().measure(value, charset);
+    }
+
+    /**
+     * write String into buffer, fill remains when [bytes] specified
+     *
+     * @param bytes [bytes] value, tail field when lesser than or equal to 0
+     * @throws TairaIllegalValueException when encoded String is larger than [bytes]
+     */
+    static void write(ByteBuffer buffer, String value, int bytes, Charset charset, String fieldName) {
+        if (value == null) {
+            TairaCodec.pad(buffer, bytes);
+            return;
+        }
+        int start = buffer.position();
+        int limit = buffer.limit();
+        if (bytes > 0) {
+            if (start + bytes > limit) {
+                throw new TairaInternalException("Buffer overflow when writing field [" + fieldName + "]");
+            }
+            // encoder stops at the fixed width instead of checking a temporary array
+            buffer.limit(start + bytes);
+        }
+        boolean overflow;
+        try {
+            overflow = !LOCAL.get().encode(buffer, value, charset);
+        } finally {
+            buffer.limit(limit);
+        }
+        if (overflow) {
+            buffer.position(start);
+            if (bytes > 0) {
+                throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [bytes] should be larger");
+            }
+            throw new TairaInternalException("Buffer overflow when writing field [" + fieldName + "]");
+        }
+        if (bytes > 0) {
+            TairaCodec.pad(buffer, start + bytes - buffer.position());
+        }
+    }
+
+    /**
+     * read String from buffer, decode from backing array directly when possible
+     *
+     * @param bytes [bytes] value, read all remains when lesser than or equal to 0
+     */
+    static String read(ByteBuffer buffer, int bytes, Charset charset) {
+        if (!buffer.hasArray()) {
+            return new String(ByteArrayNode.readByteArray(buffer, bytes), charset);
+        }
+        int size = bytes <= 0 ? buffer.remaining() : bytes;
+        if (size > buffer.remaining()) {
+            // let buffer throw as reading a byte array does
+            buffer.get(new byte[size]);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), size, charset);
+        buffer.position(buffer.position() + size);
+        return value;
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int size = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                size += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // supplementary code point, 2 chars to 4 bytes
+                size += 2;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate is replaced by a single '?'
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    private int measure(String value, Charset charset) {
+        int capacity = (int) Math.ceil(value.length() * (double) encoder(charset).maxBytesPerChar());
+        if (scratch == null || scratch.capacity() < capacity) {
+            scratch = ByteBuffer.allocate(Math.max(capacity, 64));
+        }
+        scratch.clear();
+        if (!encode(scratch, value, charset)) {
+            throw new TairaInternalException("Unable to measure String in charset [" + charset + "]");
+        }
+        scratch.flip();
+        measured = value;
+        return scratch.remaining();
+    }
+
+    /**
+     * @return false when buffer has not enough remaining
+     */
+    private boolean encode(ByteBuffer buffer, String value, Charset charset) {
+        if (value == measured && buffer != scratch && charset.equals(this.charset)) {
+            // measured right before, copy instead of encoding again
+            measured = null;
+            if (buffer.remaining() < scratch.remaining()) {
+                return false;
+            }
+            buffer.put(scratch);
+            releaseScratch();
+            return true;
+        }
+        CharsetEncoder encoder = encoder(charset);
+        encoder.reset();
+        CoderResult result = encoder.encode(charsOf(value), buffer, true);
+        if (result.isUnderflow()) {
+            result = encoder.flush(buffer);
+        }
+        if (result.isOverflow()) {
+            return false;
+        }
+        if (result.isError()) {
+            throw new TairaInternalException("Unable to encode String in charset [" + charset + "]");
+        }
+        return true;
+    }
+
+    private CharBuffer charsOf(String value) {
+        int length = value.length();
+        if (chars.capacity() < length) {
+            chars = CharBuffer.allocate(length);
+        }
+        value.getChars(0, length, chars.array(), 0);
+        chars.clear();
+        chars.limit(length);
+        CharBuffer result = chars;
+        if (length > MAX_RETAINED_SCRATCH) {
+            chars = CharBuffer.allocate(64);
+        }
+        return result;
+    }
+
+    private CharsetEncoder encoder(Charset charset) {
+        if (!charset.equals(this.charset)) {
+            this.charset = charset;
+            this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            measured = null;
+        }
+        return encoder;
+    }
+
+    private void releaseScratch() {
+        if (scratch.capacity() > MAX_RETAINED_SCRATCH) {
+            scratch = null;
+        }
+    }
+}
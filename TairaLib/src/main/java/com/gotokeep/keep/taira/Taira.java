@@ -25,18 +25,36 @@ import com.gotokeep.keep.taira.exception.TairaAnnotationException;
 import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
 import com.gotokeep.keep.taira.exception.TairaInternalException;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Taira API
  */
 public class Taira {
 
+    /**
+     * default charset for String encoding/decoding
+     */
+    private static final Charset DEFAULT_CHARSET = Charset.forName("utf-8");
+
+    /**
+     * default byte order
+     */
+    private static final ByteOrder DEFAULT_ORDER = ByteOrder.BIG_ENDIAN;
+
     /**
      * default instance
      */
@@ -50,24 +68,53 @@ public class Taira {
     public static boolean DEBUG = false;
 
     /**
-     * default charset for String encoding/decoding
+     * charset for String encoding/decoding
      */
-    private Charset charset = Charset.forName("utf-8");
+    private final Charset charset;
 
     /**
-     * default byte order
+     * byte order
+     */
+    private final ByteOrder order;
+
+    /**
+     * buffer supplier of {@link #lease(TairaData)}
      */
-    private ByteOrder order = ByteOrder.BIG_ENDIAN;
+    private final TairaBufferAllocator allocator;
+
+    /**
+     * receiver of per-call events
+     */
+    private final TairaListener listener;
+
+    /**
+     * whether listener receives anything, calls are neither timed nor reported otherwise
+     */
+    private final boolean listening;
 
     /**
      * cache TairaDataNode root, speed up further executions
+     *
+     * shared by all threads using this instance, a node is fully built before it is published
+     */
+    private final ConcurrentMap<Class<? extends TairaData>, TairaDataNode> rootNodeCache = new ConcurrentHashMap<>();
+
+    /**
+     * cache static layout of TairaData classes
+     */
+    private final ConcurrentMap<Class<? extends TairaData>, TairaSchema> schemaCache = new ConcurrentHashMap<>();
+
+    /**
+     * cache compiled projections, keyed by class followed by the selected field names
      */
-    private final Map<Class<? extends TairaData>, TairaDataNode> rootNodeCache = new HashMap<>();
+    private final ConcurrentMap<List<Object>, TairaProjection<?>> projectionCache = new ConcurrentHashMap<>();
 
     /**
      * use default
      */
-    private Taira() {}
+    private Taira() {
+        this(DEFAULT_CHARSET, DEFAULT_ORDER);
+    }
 
     /**
      * construct Taira instance
@@ -75,7 +122,7 @@ public class Taira {
      * @param order specified byte order
      */
     public Taira(ByteOrder order) {
-        this.order = order;
+        this(DEFAULT_CHARSET, order);
     }
 
     /**
@@ -84,7 +131,7 @@ public class Taira {
      * @param charset specified charset
      */
     public Taira(Charset charset) {
-        this.charset = charset;
+        this(charset, DEFAULT_ORDER);
     }
 
     /**
@@ -94,8 +141,34 @@ public class Taira {
      * @param order specified byte order
      */
     public Taira(Charset charset, ByteOrder order) {
+        this(charset, order, TairaBufferAllocator.heap());
+    }
+
+    /**
+     * construct Taira instance
+     *
+     * @param charset specified charset
+     * @param order specified byte order
+     * @param allocator buffer allocator used by {@link #lease(TairaData)}, {@link TairaBufferAllocator#heap()} if null
+     */
+    public Taira(Charset charset, ByteOrder order, TairaBufferAllocator allocator) {
+        this(charset, order, allocator, TairaListener.none());
+    }
+
+    /**
+     * construct Taira instance
+     *
+     * @param charset specified charset
+     * @param order specified byte order
+     * @param allocator buffer allocator used by {@link #lease(TairaData)}, {@link TairaBufferAllocator#heap()} if null
+     * @param listener receiver of per-call events, e.g. {@link TairaMetrics}, {@link TairaListener#none()} if null
+     */
+    public Taira(Charset charset, ByteOrder order, TairaBufferAllocator allocator, TairaListener listener) {
         this.charset = charset;
         this.order = order;
+        this.allocator = allocator == null ? TairaBufferAllocator.heap() : allocator;
+        this.listener = listener == null ? TairaListener.none() : listener;
+        this.listening = this.listener != TairaListener.none();
     }
 
     /**
@@ -111,14 +184,9 @@ public class Taira {
             return null;
         }
         try {
-            AnnotationUtils.checkAnnotationOrThrow(object.getClass());
             return serializeArray(object);
         } catch (TairaInternalException e) {
-            if (DEBUG) {
-                throw e;
-            } else {
-                e.printStackTrace();
-            }
+            handleInternalException(e);
         }
         return null;
     }
@@ -137,18 +205,107 @@ public class Taira {
             return null;
         }
         try {
-            AnnotationUtils.checkAnnotationOrThrow(object.getClass());
             return serializeBuffer(object);
         } catch (TairaInternalException e) {
-            if (DEBUG) {
-                throw e;
-            } else {
-                e.printStackTrace();
-            }
+            handleInternalException(e);
         }
         return null;
     }
 
+    /**
+     * serialize TairaData instance into a caller-supplied buffer, no intermediate buffer is allocated
+     *
+     * bytes are written from target's current position with the byte order of this instance, target's position is
+     * advanced and its own byte order is kept
+     *
+     * @param object object instance to serialize
+     * @param target buffer to write into
+     * @return written byte count, 0 if object is null, -1 on internal error
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or target has not enough remaining
+     */
+    public <T extends TairaData> int toBytes(T object, ByteBuffer target)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (object == null) {
+            return 0;
+        }
+        ByteOrder targetOrder = target.order();
+        try {
+            target.order(order);
+            return serializeInto(object, target);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        } finally {
+            target.order(targetOrder);
+        }
+        return -1;
+    }
+
+    /**
+     * serialize TairaData instance into a buffer from the allocator of this instance
+     *
+     * with a recycling allocator steady-state serialization allocates nothing, give the buffer back through
+     * {@link #release(ByteBuffer)} after its bytes are consumed
+     *
+     * @param object object instance to serialize
+     * @return buffer ready to read, position 0 and limit at the end of serialized bytes, null if object is null or on
+     * internal error
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error
+     */
+    public <T extends TairaData> ByteBuffer lease(T object) throws TairaAnnotationException, TairaIllegalValueException {
+        if (object == null) {
+            return null;
+        }
+        try {
+            return leaseBuffer(object);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * give back a buffer from {@link #lease(TairaData)}, it must not be used afterwards
+     *
+     * @param buffer leased buffer, ignored if null
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer != null) {
+            allocator.release(buffer);
+        }
+    }
+
+    /**
+     * serialize TairaData instance into a caller-supplied byte array
+     *
+     * @param object object instance to serialize
+     * @param dst array to write into
+     * @param offset start index in dst
+     * @return written byte count, 0 if object is null, -1 on internal error
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or dst has not enough space after offset
+     */
+    public <T extends TairaData> int toBytes(T object, byte[] dst, int offset)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (object == null) {
+            return 0;
+        }
+        try {
+            ByteBuffer target;
+            try {
+                target = ByteBuffer.wrap(dst, offset, dst.length - offset).order(order);
+            } catch (IndexOutOfBoundsException e) {
+                throw new TairaIllegalValueException(
+                    "Offset [" + offset + "] is out of bounds of array length [" + dst.length + "]");
+            }
+            return serializeInto(object, target);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return -1;
+    }
+
     /**
      * deserialize byte array to TairaData instance
      *
@@ -162,14 +319,9 @@ public class Taira {
             return null;
         }
         try {
-            AnnotationUtils.checkAnnotationOrThrow(clazz);
             return deserializeArray(data, clazz);
         } catch (TairaInternalException e) {
-            if (DEBUG) {
-                throw e;
-            } else {
-                e.printStackTrace();
-            }
+            handleInternalException(e);
         }
         return null;
     }
@@ -187,44 +339,641 @@ public class Taira {
             return null;
         }
         try {
-            AnnotationUtils.checkAnnotationOrThrow(clazz);
             return deserializeBuffer(data, clazz);
         } catch (TairaInternalException e) {
-            if (DEBUG) {
-                throw e;
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * serialize instances of one TairaData class contiguously into one byte array
+     *
+     * node lookup happens once for the whole batch, null members are written as zero bytes. records of a fixed-size
+     * class are written back to back, records of a variable-size class are framed like {@link TairaWriter}, each
+     * prefixed with its byte size as an unsigned varint, so they can be read back by {@link TairaReader} too
+     *
+     * @param objects instances of exactly the same class
+     * @return byte array of all records, null if objects is null
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or records are of different classes
+     */
+    public <T extends TairaData> byte[] toBytes(List<T> objects)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (objects == null) {
+            return null;
+        }
+        try {
+            return serializeBatch(objects, null).array();
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * serialize instances of one TairaData class contiguously into one byte buffer, laid out as
+     * {@link #toBytes(List)}
+     *
+     * @param objects instances of exactly the same class
+     * @return byte buffer of all records, null if objects is null
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or records are of different classes
+     */
+    public <T extends TairaData> ByteBuffer toByteBuffer(List<T> objects)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (objects == null) {
+            return null;
+        }
+        try {
+            return serializeBatch(objects, null);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * deserialize contiguous records of one TairaData class laid out as {@link #toBytes(List)}
+     *
+     * @param data byte array data
+     * @param clazz TairaData type
+     * @param count record count
+     * @return TairaData instances
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when data is shorter than [count] records
+     */
+    public <T extends TairaData> List<T> fromBytes(byte[] data, Class<T> clazz, int count)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return deserializeBatch(ByteBuffer.wrap(data).order(order), clazz, count, null);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * deserialize contiguous records of one TairaData class laid out as {@link #toBytes(List)}
+     *
+     * @param data byte buffer data
+     * @param clazz TairaData type
+     * @param count record count
+     * @return TairaData instances
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when data is shorter than [count] records
+     */
+    public <T extends TairaData> List<T> fromByteBuffer(ByteBuffer data, Class<T> clazz, int count)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return deserializeBatch(data, clazz, count, null);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * serialize instances of one TairaData class into one byte array, slices of records are written in parallel on
+     * [pool]
+     *
+     * variable-size records are sized in parallel first and prefix-summed into frame offsets. output is
+     * byte-identical to {@link #toBytes(List)}, splitting pays off for large batches only
+     *
+     * @param objects instances of exactly the same class
+     * @param pool pool running the slices
+     * @return byte array of all records, null if objects is null
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or records are of different classes
+     */
+    public <T extends TairaData> byte[] toBytes(List<T> objects, ForkJoinPool pool)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (objects == null) {
+            return null;
+        }
+        try {
+            return serializeBatch(objects, pool).array();
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * deserialize contiguous records of one TairaData class laid out as {@link #toBytes(List)}, slices of records
+     * are read in parallel on [pool]
+     *
+     * frames of variable-size records are located by their size prefixes first
+     *
+     * @param data byte array data
+     * @param clazz TairaData type
+     * @param count record count
+     * @param pool pool running the slices
+     * @return TairaData instances
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when data is shorter than [count] records
+     */
+    public <T extends TairaData> List<T> fromBytes(byte[] data, Class<T> clazz, int count, ForkJoinPool pool)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return deserializeBatch(ByteBuffer.wrap(data).order(order), clazz, count, pool);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return null;
+    }
+
+    /**
+     * check annotations and build serialization trees of classes up front, so their first message skips it
+     *
+     * @param classes TairaData types
+     * @throws TairaAnnotationException when annotation error in any class
+     */
+    @SafeVarargs
+    public final void register(Class<? extends TairaData>... classes) throws TairaAnnotationException {
+        for (Class<? extends TairaData> clazz : classes) {
+            getTairaNode(clazz, charset);
+        }
+    }
+
+    /**
+     * same as {@link #register(Class[])}, classes are built in parallel on [pool]
+     *
+     * @param pool pool building the classes
+     * @param classes TairaData types
+     * @throws TairaAnnotationException when annotation error in any class
+     */
+    @SafeVarargs
+    public final void register(ForkJoinPool pool, Class<? extends TairaData>... classes)
+        throws TairaAnnotationException {
+        List<Callable<Void>> tasks = new ArrayList<>(classes.length);
+        for (final Class<? extends TairaData> clazz : classes) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    getTairaNode(clazz, charset);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            handleInternalException(new TairaInternalException(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleInternalException(new TairaInternalException(e));
+        }
+    }
+
+    /**
+     * register every concrete TairaData class of a package and its sub packages found on the class path
+     *
+     * @param packageName package name, e.g. com.example.model
+     * @return registered classes, empty if the class path can not be listed (e.g. Android) or on internal error
+     * @throws TairaAnnotationException when annotation error in any class
+     */
+    public List<Class<? extends TairaData>> preload(String packageName) throws TairaAnnotationException {
+        return preload(packageName, null);
+    }
+
+    /**
+     * same as {@link #preload(String)}, classes are built in parallel on [pool]
+     *
+     * @param packageName package name, e.g. com.example.model
+     * @param pool pool building the classes, null to build sequentially
+     * @return registered classes, empty if the class path can not be listed (e.g. Android) or on internal error
+     * @throws TairaAnnotationException when annotation error in any class
+     */
+    @SuppressWarnings("unchecked")
+    public List<Class<? extends TairaData>> preload(String packageName, ForkJoinPool pool)
+        throws TairaAnnotationException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = Taira.class.getClassLoader();
+        }
+        try {
+            List<Class<? extends TairaData>> classes = ReflectionUtils.findTairaClasses(packageName, loader);
+            Class<? extends TairaData>[] array = classes.toArray(new Class[classes.size()]);
+            if (pool == null) {
+                register(array);
             } else {
-                e.printStackTrace();
+                register(pool, array);
             }
+            return classes;
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * run synthetic encode/decode cycles so the JIT compiles the paths of classes before real traffic
+     *
+     * records are decoded from zero bytes and encoded back, nothing is reported to the listener
+     *
+     * @param iterations cycles per class
+     * @param classes TairaData types, registered first if not yet
+     * @throws TairaAnnotationException when annotation error in any class
+     */
+    @SafeVarargs
+    public final void warmUp(int iterations, Class<? extends TairaData>... classes) throws TairaAnnotationException {
+        try {
+            for (Class<? extends TairaData> clazz : classes) {
+                TairaDataNode root = getTairaNode(clazz, charset);
+                ByteBuffer buffer = ByteBuffer.allocate(root.minSize()).order(order);
+                for (int i = 0; i < iterations; i++) {
+                    buffer.clear();
+                    Object record = root.deserialize(buffer);
+                    int byteSize = root.evaluateSize(record);
+                    if (byteSize > buffer.capacity()) {
+                        buffer = ByteBuffer.allocate(byteSize).order(order);
+                    }
+                    buffer.clear();
+                    root.serialize(buffer, record);
+                }
+            }
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
+        }
+    }
+
+    /**
+     * get static byte layout of TairaData class
+     *
+     * @param clazz TairaData type
+     * @return schema with min/max/fixed size and field offsets
+     * @throws TairaAnnotationException when annotation error
+     */
+    public TairaSchema getSchema(Class<? extends TairaData> clazz) throws TairaAnnotationException {
+        TairaSchema schema = schemaCache.get(clazz);
+        if (schema == null) {
+            TairaDataNode root = getTairaNode(clazz, charset);
+            if (root.isGenerated()) {
+                // generated serializer keeps no layout, build it from annotations
+                AnnotationUtils.checkAnnotationOrThrow(clazz);
+                root = root.reflective();
+            }
+            schema = root.createSchema();
+            TairaSchema existing = schemaCache.putIfAbsent(clazz, schema);
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * deserialize only the selected fields, others keep default values
+     *
+     * the projection is compiled on first call and cached per class and field names, see
+     * {@link #projection(Class, String...)}
+     *
+     * @param data byte array data
+     * @param clazz TairaData type
+     * @param fieldNames field names or dotted paths into nested TairaData
+     * @return TairaData instance
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when a field name is not a ParamField
+     */
+    public <T extends TairaData> T fromBytes(byte[] data, Class<T> clazz, String... fieldNames)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            return projection(clazz, fieldNames).fromBytes(data);
+        } catch (TairaInternalException e) {
+            handleInternalException(e);
         }
         return null;
     }
 
+    /**
+     * precompile a partial decoder of the selected fields, see {@link TairaProjection}
+     *
+     * projections are cached per class and field names, the same field names in the same order return the same one
+     *
+     * @param clazz TairaData type
+     * @param fieldNames field names or dotted paths into nested TairaData
+     * @return reusable projection
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when a field name is not a ParamField
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends TairaData> TairaProjection<T> projection(Class<T> clazz, String... fieldNames)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        List<Object> key = new ArrayList<>(fieldNames.length + 1);
+        key.add(clazz);
+        Collections.addAll(key, fieldNames);
+        TairaProjection<T> projection = (TairaProjection<T>) projectionCache.get(key);
+        if (projection == null) {
+            TairaDataNode root = getTairaNode(clazz, charset);
+            if (root.isGenerated()) {
+                // reflective children are built for the projection
+                AnnotationUtils.checkAnnotationOrThrow(clazz);
+            }
+            projection = new TairaProjection<>(clazz, root, order, fieldNames);
+            TairaProjection<?> existing = projectionCache.putIfAbsent(key, projection);
+            if (existing != null) {
+                projection = (TairaProjection<T>) existing;
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * create a reusable view reading single fields of encoded data without deserializing it, see {@link TairaView}
+     *
+     * @param clazz TairaData type
+     * @return view not wrapping any data yet
+     * @throws TairaAnnotationException when annotation error
+     */
+    public <T extends TairaData> TairaView<T> view(Class<T> clazz) throws TairaAnnotationException {
+        return new TairaView<>(getSchema(clazz), order);
+    }
+
+    /**
+     * create a view reading single fields of encoded data starting at buffer position
+     *
+     * @param data encoded data
+     * @param clazz TairaData type
+     * @return view wrapping data
+     * @throws TairaAnnotationException when annotation error
+     */
+    public <T extends TairaData> TairaView<T> view(ByteBuffer data, Class<T> clazz) throws TairaAnnotationException {
+        return view(clazz).wrap(data);
+    }
+
     private <T extends TairaData> byte[] serializeArray(T data) {
-        return serializeBuffer(data).array();
+        ByteBuffer buffer = serializeBuffer(data);
+        if (buffer.position() == buffer.capacity()) {
+            return buffer.array();
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private <T extends TairaData> ByteBuffer leaseBuffer(T object) {
+        long start = startTime();
+        TairaDataNode root = getTairaNode(object.getClass(), charset);
+        ByteBuffer buffer = null;
+        boolean leased = false;
+        try {
+            int byteSize = root.evaluateSize(object);
+            buffer = allocator.acquire(byteSize);
+            buffer.order(order);
+            buffer.limit(byteSize);
+            root.serialize(buffer, object);
+            buffer.flip();
+            leased = true;
+            reportSerialize(object.getClass(), byteSize, start);
+            return buffer;
+        } catch (RuntimeException e) {
+            reportError(object.getClass(), e);
+            throw e;
+        } finally {
+            if (buffer != null && !leased) {
+                allocator.release(buffer);
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
     private <T extends TairaData> T deserializeBuffer(ByteBuffer buffer, Class<T> clazz) {
+        long start = startTime();
         TairaDataNode root = getTairaNode(clazz, charset);
-        return (T) root.deserialize(buffer);
+        int position = buffer.position();
+        try {
+            T result = (T) root.deserialize(buffer);
+            reportDeserialize(clazz, buffer.position() - position, start);
+            return result;
+        } catch (RuntimeException e) {
+            reportError(clazz, e);
+            throw e;
+        }
     }
 
     private <T extends TairaData> ByteBuffer serializeBuffer(T data) {
+        long start = startTime();
         TairaDataNode root = getTairaNode(data.getClass(), charset);
-        int byteSize = root.evaluateSize(data);
-        ByteBuffer buffer;
         try {
-            buffer = ByteBuffer.allocate(byteSize).order(order);
-        } catch (IndexOutOfBoundsException | IllegalStateException e) {
-            throw new TairaInternalException(e);
+            int byteSize = root.evaluateSize(data);
+            ByteBuffer buffer;
+            try {
+                buffer = ByteBuffer.allocate(byteSize).order(order);
+            } catch (IndexOutOfBoundsException | IllegalStateException e) {
+                throw new TairaInternalException(e);
+            }
+            root.serialize(buffer, data);
+            reportSerialize(data.getClass(), byteSize, start);
+            return buffer;
+        } catch (RuntimeException e) {
+            reportError(data.getClass(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * serialize into target at its position, target byte order already set
+     *
+     * @return written byte count
+     */
+    private <T extends TairaData> int serializeInto(T data, ByteBuffer target) {
+        long start = startTime();
+        TairaDataNode root = getTairaNode(data.getClass(), charset);
+        try {
+            int byteSize = root.evaluateSize(data);
+            if (target.remaining() < byteSize) {
+                throw new TairaIllegalValueException(
+                    "Target remaining [" + target.remaining() + "] is lesser than data size [" + byteSize + "]");
+            }
+            int position = target.position();
+            root.serialize(target, data);
+            int written = target.position() - position;
+            reportSerialize(data.getClass(), written, start);
+            return written;
+        } catch (RuntimeException e) {
+            reportError(data.getClass(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * @param pool pool writing slices of records in parallel, null to write sequentially
+     */
+    private <T extends TairaData> ByteBuffer serializeBatch(List<T> objects, ForkJoinPool pool) {
+        if (objects.isEmpty()) {
+            return ByteBuffer.allocate(0).order(order);
+        }
+        long start = startTime();
+        Class<? extends TairaData> clazz = batchClass(objects);
+        TairaDataNode root = clazz == null ? null : getTairaNode(clazz, charset);
+        try {
+            if (clazz == null) {
+                throw new TairaIllegalValueException("Batch class is unknown, all records are null");
+            }
+            ByteBuffer buffer = serializeBatch(objects, pool, clazz, root);
+            reportSerialize(clazz, buffer.position(), start);
+            return buffer;
+        } catch (RuntimeException e) {
+            reportError(clazz, e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return class of the first non-null record, null if all records are null
+     */
+    private static <T extends TairaData> Class<? extends TairaData> batchClass(List<T> objects) {
+        for (T object : objects) {
+            if (object != null) {
+                return object.getClass();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param clazz class of all non-null records
+     */
+    private <T extends TairaData> ByteBuffer serializeBatch(List<T> objects, ForkJoinPool pool,
+                                                            Class<? extends TairaData> clazz, TairaDataNode root) {
+        Object[] records = objects.toArray();
+        if (!root.isFixedSize()) {
+            return serializeFrames(records, pool, clazz, root);
+        }
+        long byteSize = (long) records.length * root.minSize();
+        if (byteSize > Integer.MAX_VALUE) {
+            throw new TairaIllegalValueException("Batch size [" + byteSize + "] is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) byteSize).order(order);
+        if (pool != null) {
+            pool.invoke(BatchTask.encode(root, clazz, records, null, null, buffer));
+            buffer.position(buffer.limit());
+            return buffer;
+        }
+        for (Object record : records) {
+            BatchTask.checkClass(record, clazz);
+            root.serialize(buffer, record);
+        }
+        return buffer;
+    }
+
+    /**
+     * variable-size records are framed like {@link TairaWriter}, sizes are evaluated first and prefix-summed into
+     * frame offsets, so slices of the output can be written in parallel
+     */
+    private ByteBuffer serializeFrames(Object[] records, ForkJoinPool pool, Class<? extends TairaData> clazz,
+                                       TairaDataNode root) {
+        int[] sizes = new int[records.length];
+        if (pool != null) {
+            pool.invoke(BatchTask.size(root, clazz, records, sizes));
+        } else {
+            for (int i = 0; i < records.length; i++) {
+                BatchTask.checkClass(records[i], clazz);
+                sizes[i] = root.evaluateSize(records[i]);
+            }
+        }
+        int[] offsets = BatchTask.frameOffsets(sizes);
+        ByteBuffer buffer = ByteBuffer.allocate(offsets[records.length]).order(order);
+        if (pool != null) {
+            pool.invoke(BatchTask.encode(root, clazz, records, sizes, offsets, buffer));
+            buffer.position(buffer.limit());
+            return buffer;
+        }
+        for (int i = 0; i < records.length; i++) {
+            TairaCodec.writeUnsignedVarInt(buffer, sizes[i]);
+            root.serialize(buffer, records[i]);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param pool pool reading slices of records in parallel, null to read sequentially
+     */
+    private <T extends TairaData> List<T> deserializeBatch(ByteBuffer buffer, Class<T> clazz, int count,
+                                                           ForkJoinPool pool) {
+        long start = startTime();
+        TairaDataNode root = getTairaNode(clazz, charset);
+        int position = buffer.position();
+        try {
+            List<T> result = deserializeRecords(buffer, root, count, pool);
+            reportDeserialize(clazz, buffer.position() - position, start);
+            return result;
+        } catch (RuntimeException e) {
+            reportError(clazz, e);
+            throw e;
         }
-        root.serialize(buffer, data);
-        buffer.flip();
-        ByteBuffer readonlyBuffer = buffer.asReadOnlyBuffer();
-        ByteBuffer compactBuffer = ByteBuffer.allocate(readonlyBuffer.limit()).order(order);
-        compactBuffer.put(Arrays.copyOfRange(buffer.array(), 0, readonlyBuffer.limit()));
+    }
 
-        return compactBuffer;
+    @SuppressWarnings("unchecked")
+    private <T extends TairaData> List<T> deserializeRecords(ByteBuffer buffer, TairaDataNode root, int count,
+                                                             ForkJoinPool pool) {
+        if (count < 0 || (long) count * root.minSize() > buffer.remaining()) {
+            throw new TairaIllegalValueException("Data remaining [" + buffer.remaining() + "] does not hold [" + count
+                + "] records of [" + root.minSize() + "] bytes");
+        }
+        if (!root.isFixedSize()) {
+            return (List<T>) (List) deserializeFrames(buffer, root, count, pool);
+        }
+        if (pool != null) {
+            Object[] results = new Object[count];
+            pool.invoke(BatchTask.decode(root, results, null, buffer));
+            buffer.position(buffer.position() + count * root.minSize());
+            return new ArrayList<>((List<T>) (List) Arrays.asList(results));
+        }
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add((T) root.deserialize(buffer));
+        }
+        return result;
+    }
+
+    /**
+     * frame offsets are collected by reading only the size prefixes, then frames are decoded each within its own
+     * bytes, buffer is left after the last frame
+     */
+    private List<Object> deserializeFrames(ByteBuffer buffer, TairaDataNode root, int count, ForkJoinPool pool) {
+        int[] offsets = new int[count + 1];
+        int position = buffer.position();
+        try {
+            for (int i = 0; i < count; i++) {
+                offsets[i] = buffer.position();
+                Node.skipBytes(buffer, TairaCodec.readUnsignedVarInt(buffer));
+            }
+            offsets[count] = buffer.position();
+            Object[] results = new Object[count];
+            if (pool != null) {
+                pool.invoke(BatchTask.decode(root, results, offsets, buffer));
+            } else {
+                ByteBuffer frame = buffer.duplicate().order(order);
+                for (int i = 0; i < count; i++) {
+                    frame.limit(offsets[i + 1]);
+                    frame.position(offsets[i]);
+                    TairaCodec.readUnsignedVarInt(frame);
+                    results[i] = root.deserialize(frame);
+                }
+            }
+            return new ArrayList<>(Arrays.asList(results));
+        } catch (BufferUnderflowException e) {
+            buffer.position(position);
+            throw new TairaIllegalValueException("Data does not hold [" + count + "] records of class ["
+                + root.clazz.getName() + "]");
+        }
     }
 
     private <T extends TairaData> T deserializeArray(byte[] array, Class<T> clazz) {
@@ -237,17 +986,94 @@ public class Taira {
         return deserializeBuffer(buffer, clazz);
     }
 
+    ByteOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * root node for TairaWriter/TairaReader
+     */
+    TairaDataNode getTairaNode(Class<? extends TairaData> clazz) {
+        return getTairaNode(clazz, charset);
+    }
+
+    /**
+     * @return start time of a call, 0 when not listening
+     */
+    private long startTime() {
+        if (!listening) {
+            return 0;
+        }
+        listener.onStart();
+        return System.nanoTime();
+    }
+
+    private void reportSerialize(Class<? extends TairaData> clazz, int bytes, long start) {
+        if (listening) {
+            listener.onSerialize(clazz, bytes, System.nanoTime() - start);
+        }
+    }
+
+    private void reportDeserialize(Class<? extends TairaData> clazz, int bytes, long start) {
+        if (listening) {
+            listener.onDeserialize(clazz, bytes, System.nanoTime() - start);
+        }
+    }
+
+    private void reportError(Class<? extends TairaData> clazz, RuntimeException e) {
+        if (listening) {
+            listener.onError(clazz, e);
+        }
+    }
+
+    /**
+     * throw internal exception in debug mode, otherwise print it
+     */
+    private static void handleInternalException(TairaInternalException e) {
+        if (DEBUG) {
+            throw e;
+        } else {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * get a TairaDataNode instance from cache or create one
      *
+     * annotations are checked before building, unless a compile-time generated serializer exists (already checked
+     * by TairaCompiler). a failed build is reported to the listener here, callers reporting their own failures
+     * look the node up before their reporting block so it is reported once
+     *
+     * lock-free: concurrent first calls may build the tree more than once, but only the first published node is
+     * ever returned, so every thread shares the same instance afterwards
+     *
      * @param clazz class
      * @return node
      */
     private TairaDataNode getTairaNode(Class<? extends TairaData> clazz, Charset charset) {
         TairaDataNode node = rootNodeCache.get(clazz);
+        if (listening) {
+            listener.onNodeLookup(clazz, node != null);
+        }
         if (node == null) {
-            node = new TairaDataNode(clazz, charset);
-            rootNodeCache.put(clazz, node);
+            long start = listening ? System.nanoTime() : 0;
+            try {
+                TairaSerializer generated = ReflectionUtils.findGeneratedSerializer(clazz);
+                if (generated == null) {
+                    AnnotationUtils.checkAnnotationOrThrow(clazz);
+                }
+                node = new TairaDataNode(clazz, charset, generated);
+            } catch (RuntimeException e) {
+                reportError(clazz, e);
+                throw e;
+            }
+            if (listening) {
+                listener.onNodeBuild(clazz, System.nanoTime() - start);
+            }
+            TairaDataNode existing = rootNodeCache.putIfAbsent(clazz, node);
+            if (existing != null) {
+                node = existing;
+            }
         }
         return node;
     }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * supply output buffers for {@link Taira#lease(TairaData)}, buffers come back through {@link Taira#release(ByteBuffer)}
+ *
+ * buffers may be recycled and hold stale bytes, Taira writes every byte of the leased range including padding
+ */
+public abstract class TairaBufferAllocator {
+
+    /**
+     * @param capacity minimum capacity
+     * @return buffer with at least [capacity] remaining from position 0, byte order is set by caller
+     */
+    public abstract ByteBuffer acquire(int capacity);
+
+    /**
+     * give back a buffer from {@link #acquire(int)}, it must not be used afterwards
+     */
+    public abstract void release(ByteBuffer buffer);
+
+    /**
+     * allocate a new heap buffer every time, nothing is retained
+     */
+    public static TairaBufferAllocator heap() {
+        return HeapAllocator.INSTANCE;
+    }
+
+    /**
+     * reuse one growing buffer per thread, a nested acquire before release falls back to a new buffer
+     *
+     * @param direct whether to use direct (off-heap) buffers
+     */
+    public static TairaBufferAllocator threadLocal(boolean direct) {
+        return new ThreadLocalAllocator(direct);
+    }
+
+    /**
+     * bounded pool of power-of-two sized buffers shared by all threads
+     *
+     * @param maxPerSize max pooled buffers of each size, extra released buffers are dropped
+     * @param direct whether to use direct (off-heap) buffers
+     */
+    public static TairaBufferAllocator pool(int maxPerSize, boolean direct) {
+        return new PoolAllocator(maxPerSize, direct);
+    }
+
+    static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static final class HeapAllocator extends TairaBufferAllocator {
+
+        static final HeapAllocator INSTANCE = new HeapAllocator();
+
+        @Override
+        public ByteBuffer acquire(int capacity) {
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+        }
+    }
+
+    private static final class ThreadLocalAllocator extends TairaBufferAllocator {
+
+        private final boolean direct;
+
+        private final ThreadLocal<ByteBuffer[]> scratch = new ThreadLocal<ByteBuffer[]>() {
+            @Override
+            protected ByteBuffer[] initialValue() {
+                // [0] free buffer, null while leased
+                return new ByteBuffer[1];
+            }
+        };
+
+        ThreadLocalAllocator(boolean direct) {
+            this.direct = direct;
+        }
+
+        @Override
+        public ByteBuffer acquire(int capacity) {
+            ByteBuffer[] holder = scratch.get();
+            ByteBuffer buffer = holder[0];
+            if (buffer == null || buffer.capacity() < capacity) {
+                buffer = allocate(Math.max(capacity, buffer == null ? 0 : buffer.capacity() * 2), direct);
+            }
+            holder[0] = null;
+            buffer.clear();
+            return buffer;
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            ByteBuffer[] holder = scratch.get();
+            if (holder[0] == null || holder[0].capacity() < buffer.capacity()) {
+                holder[0] = buffer;
+            }
+        }
+    }
+
+    private static final class PoolAllocator extends TairaBufferAllocator {
+
+        /**
+         * smallest pooled size is 1 << MIN_SHIFT
+         */
+        private static final int MIN_SHIFT = 6;
+
+        private final boolean direct;
+
+        /**
+         * pools[i] holds buffers of capacity 1 << (i + MIN_SHIFT)
+         */
+        private final ArrayBlockingQueue<ByteBuffer>[] pools;
+
+        @SuppressWarnings("unchecked")
+        PoolAllocator(int maxPerSize, boolean direct) {
+            this.direct = direct;
+            pools = new ArrayBlockingQueue[Integer.SIZE - 1 - MIN_SHIFT];
+            for (int i = 0; i < pools.length; i++) {
+                pools[i] = new ArrayBlockingQueue<>(Math.max(maxPerSize, 1));
+            }
+        }
+
+        @Override
+        public ByteBuffer acquire(int capacity) {
+            int index = indexOf(capacity);
+            if (index >= pools.length) {
+                // too large to pool
+                return allocate(capacity, direct);
+            }
+            ByteBuffer buffer = pools[index].poll();
+            if (buffer == null) {
+                return allocate(1 << (index + MIN_SHIFT), direct);
+            }
+            buffer.clear();
+            return buffer;
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            int capacity = buffer.capacity();
+            int index = indexOf(capacity);
+            if (index < pools.length && capacity == 1 << (index + MIN_SHIFT) && buffer.isDirect() == direct) {
+                pools[index].offer(buffer);
+            }
+        }
+
+        private static int indexOf(int capacity) {
+            if (capacity <= 1 << MIN_SHIFT) {
+                return 0;
+            }
+            return Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+        }
+    }
+}
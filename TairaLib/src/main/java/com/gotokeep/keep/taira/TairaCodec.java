@@ -0,0 +1,783 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * encoding primitives shared with generated {@link TairaSerializer}s
+ *
+ * keeps generated code byte-identical with the node tree, not intended to be called directly
+ */
+public final class TairaCodec {
+    /**
+     * max byte size of an unsigned varint encoded int
+     */
+    public static final int MAX_VAR_INT_SIZE = 5;
+
+    /**
+     * max byte size of an unsigned varint encoded long
+     */
+    public static final int MAX_VAR_LONG_SIZE = 10;
+
+    private static final byte[] ZEROS = new byte[64];
+
+    private TairaCodec() {}
+
+    public static void writeBoolean(ByteBuffer buffer, boolean value) {
+        TairaPrimitive.putBoolean(buffer, value);
+    }
+
+    public static boolean readBoolean(ByteBuffer buffer) {
+        return TairaPrimitive.getBoolean(buffer);
+    }
+
+    public static void writeByte(ByteBuffer buffer, byte value) {
+        buffer.put(value);
+    }
+
+    public static byte readByte(ByteBuffer buffer) {
+        return buffer.get();
+    }
+
+    public static void writeChar(ByteBuffer buffer, char value, int bytes) {
+        if (bytes < TairaPrimitive.CHAR.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, value, bytes);
+    }
+
+    public static char readChar(ByteBuffer buffer, int bytes) {
+        return (char) TairaPrimitive.getBytesToLong(buffer, bytes);
+    }
+
+    public static void writeShort(ByteBuffer buffer, short value, int bytes) {
+        if (bytes < TairaPrimitive.SHORT.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, value, bytes);
+    }
+
+    public static short readShort(ByteBuffer buffer, int bytes) {
+        return (short) TairaPrimitive.getSignedBytesToLong(buffer, bytes);
+    }
+
+    public static void writeInt(ByteBuffer buffer, int value, int bytes) {
+        if (bytes < TairaPrimitive.INT.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, value, bytes);
+    }
+
+    public static int readInt(ByteBuffer buffer, int bytes) {
+        return (int) TairaPrimitive.getSignedBytesToLong(buffer, bytes);
+    }
+
+    public static void writeLong(ByteBuffer buffer, long value, int bytes) {
+        if (bytes < TairaPrimitive.LONG.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, value, bytes);
+    }
+
+    public static long readLong(ByteBuffer buffer, int bytes) {
+        return TairaPrimitive.getSignedBytesToLong(buffer, bytes);
+    }
+
+    public static void writeFloat(ByteBuffer buffer, float value, int bytes) {
+        if (bytes < TairaPrimitive.FLOAT.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, Float.floatToRawIntBits(value), bytes);
+    }
+
+    public static float readFloat(ByteBuffer buffer, int bytes) {
+        return Float.intBitsToFloat((int) TairaPrimitive.getBytesToLong(buffer, bytes));
+    }
+
+    public static void writeDouble(ByteBuffer buffer, double value, int bytes) {
+        if (bytes < TairaPrimitive.DOUBLE.byteSize() && PrimitiveNode.isOverflow(value, bytes)) {
+            throw overflow(value);
+        }
+        TairaPrimitive.putLowerBytes(buffer, Double.doubleToRawLongBits(value), bytes);
+    }
+
+    public static double readDouble(ByteBuffer buffer, int bytes) {
+        return Double.longBitsToDouble(TairaPrimitive.getBytesToLong(buffer, bytes));
+    }
+
+    /**
+     * write boolean array, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     */
+    public static void writeBooleans(ByteBuffer buffer, boolean[] value, int length, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        for (int i = 0; i < count; i++) {
+            TairaPrimitive.putBoolean(buffer, value[i]);
+        }
+        padArray(buffer, count, length, 1);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     */
+    public static boolean[] readBooleans(ByteBuffer buffer, int length) {
+        boolean[] value = new boolean[arrayCount(buffer, length, 1)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = TairaPrimitive.getBoolean(buffer);
+        }
+        return value;
+    }
+
+    /**
+     * write char array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeChars(ByteBuffer buffer, char[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 2) {
+            if (count > 0) {
+                buffer.asCharBuffer().put(value);
+                buffer.position(buffer.position() + count * 2);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeChar(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static char[] readChars(ByteBuffer buffer, int length, int bytes) {
+        char[] value = new char[arrayCount(buffer, length, bytes)];
+        if (bytes == 2) {
+            if (value.length > 0) {
+                buffer.asCharBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 2);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readChar(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * write short array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeShorts(ByteBuffer buffer, short[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 2) {
+            if (count > 0) {
+                buffer.asShortBuffer().put(value);
+                buffer.position(buffer.position() + count * 2);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeShort(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static short[] readShorts(ByteBuffer buffer, int length, int bytes) {
+        short[] value = new short[arrayCount(buffer, length, bytes)];
+        if (bytes == 2) {
+            if (value.length > 0) {
+                buffer.asShortBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 2);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readShort(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * write int array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeInts(ByteBuffer buffer, int[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 4) {
+            if (count > 0) {
+                buffer.asIntBuffer().put(value);
+                buffer.position(buffer.position() + count * 4);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeInt(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static int[] readInts(ByteBuffer buffer, int length, int bytes) {
+        int[] value = new int[arrayCount(buffer, length, bytes)];
+        if (bytes == 4) {
+            if (value.length > 0) {
+                buffer.asIntBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 4);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readInt(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * write long array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeLongs(ByteBuffer buffer, long[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 8) {
+            if (count > 0) {
+                buffer.asLongBuffer().put(value);
+                buffer.position(buffer.position() + count * 8);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeLong(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static long[] readLongs(ByteBuffer buffer, int length, int bytes) {
+        long[] value = new long[arrayCount(buffer, length, bytes)];
+        if (bytes == 8) {
+            if (value.length > 0) {
+                buffer.asLongBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 8);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readLong(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * write float array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeFloats(ByteBuffer buffer, float[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 4) {
+            if (count > 0) {
+                buffer.asFloatBuffer().put(value);
+                buffer.position(buffer.position() + count * 4);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeFloat(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static float[] readFloats(ByteBuffer buffer, int length, int bytes) {
+        float[] value = new float[arrayCount(buffer, length, bytes)];
+        if (bytes == 4) {
+            if (value.length > 0) {
+                buffer.asFloatBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 4);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readFloat(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * write double array in bulk at natural width, fill remains when [length] specified
+     *
+     * @param length [length] value, tail field when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static void writeDoubles(ByteBuffer buffer, double[] value, int length, int bytes, String fieldName) {
+        int count = value == null ? 0 : value.length;
+        checkLength(count, length, fieldName);
+        if (bytes == 8) {
+            if (count > 0) {
+                buffer.asDoubleBuffer().put(value);
+                buffer.position(buffer.position() + count * 8);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                writeDouble(buffer, value[i], bytes);
+            }
+        }
+        padArray(buffer, count, length, bytes);
+    }
+
+    /**
+     * @param length [length] value, read all remains when lesser than or equal to 0
+     * @param bytes element byte size
+     */
+    public static double[] readDoubles(ByteBuffer buffer, int length, int bytes) {
+        double[] value = new double[arrayCount(buffer, length, bytes)];
+        if (bytes == 8) {
+            if (value.length > 0) {
+                buffer.asDoubleBuffer().get(value);
+                buffer.position(buffer.position() + value.length * 8);
+            }
+        } else {
+            for (int i = 0; i < value.length; i++) {
+                value[i] = readDouble(buffer, bytes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * zero-fill a packed bit group of [bytes] before writing its members
+     *
+     * @return absolute index of the first byte of group
+     */
+    public static int writeBitGroup(ByteBuffer buffer, int bytes) {
+        int index = buffer.position();
+        pad(buffer, bytes);
+        return index;
+    }
+
+    /**
+     * move buffer past a packed bit group of [bytes] before reading its members
+     *
+     * @return absolute index of the first byte of group
+     */
+    public static int readBitGroup(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() < bytes) {
+            throw new BufferUnderflowException();
+        }
+        int index = buffer.position();
+        buffer.position(index + bytes);
+        return index;
+    }
+
+    /**
+     * write lower [bits] of value into a packed bit group, bits are numbered from the lowest bit of the first byte
+     *
+     * other bits of the group are kept, buffer position is not moved
+     *
+     * @param index absolute index of the first byte of the group
+     * @param bitOffset bit offset of value in the group
+     */
+    public static void writeBits(ByteBuffer buffer, int index, int bitOffset, int bits, long value) {
+        index += bitOffset >>> 3;
+        int shift = bitOffset & 7;
+        while (bits > 0) {
+            int count = Math.min(8 - shift, bits);
+            int mask = ((1 << count) - 1) << shift;
+            int current = buffer.get(index);
+            buffer.put(index, (byte) ((current & ~mask) | (((int) value << shift) & mask)));
+            value >>>= count;
+            bits -= count;
+            shift = 0;
+            index++;
+        }
+    }
+
+    /**
+     * read [bits] from a packed bit group as unsigned value, buffer position is not moved
+     *
+     * @param index absolute index of the first byte of the group
+     * @param bitOffset bit offset of value in the group
+     */
+    public static long readBits(ByteBuffer buffer, int index, int bitOffset, int bits) {
+        index += bitOffset >>> 3;
+        int shift = bitOffset & 7;
+        long value = 0;
+        int read = 0;
+        while (read < bits) {
+            int count = Math.min(8 - shift, bits - read);
+            long part = ((buffer.get(index) & 0xFF) >>> shift) & ((1 << count) - 1);
+            value |= part << read;
+            read += count;
+            shift = 0;
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * check value fits in [bits] lesser than 64 as unsigned
+     *
+     * @return value
+     */
+    public static long checkBits(long value, int bits) throws TairaIllegalValueException {
+        if (value < 0 || value >>> bits != 0) {
+            throw new TairaIllegalValueException("Value [" + value + "] overflow, [bits] should be larger");
+        }
+        return value;
+    }
+
+    private static void padArray(ByteBuffer buffer, int count, int length, int bytes) {
+        if (length > 0) {
+            pad(buffer, (length - count) * bytes);
+        }
+    }
+
+    /**
+     * element count of [length] array, or of tail array filling the remains
+     */
+    private static int arrayCount(ByteBuffer buffer, int length, int bytes) {
+        return length > 0 ? length : buffer.remaining() / bytes;
+    }
+
+    /**
+     * @param bytes [bytes] value, tail field when lesser than or equal to 0
+     */
+    public static int sizeOf(String value, int bytes, Charset charset) {
+        if (bytes <= 0 && value != null) {
+            return StringCodec.sizeOf(value, charset);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param bytes [bytes] value, tail field when lesser than or equal to 0
+     */
+    public static int sizeOf(byte[] value, int bytes) {
+        if (bytes <= 0 && value != null) {
+            return value.length;
+        }
+        return bytes;
+    }
+
+    public static void writeString(ByteBuffer buffer, String value, int bytes, Charset charset, String fieldName) {
+        StringCodec.write(buffer, value, bytes, charset, fieldName);
+    }
+
+    public static void writeBytes(ByteBuffer buffer, byte[] value, int bytes, String fieldName) {
+        ByteArrayNode.writeByteArray(buffer, value, bytes, fieldName);
+    }
+
+    public static String readString(ByteBuffer buffer, int bytes, Charset charset) {
+        return StringCodec.read(buffer, bytes, charset);
+    }
+
+    public static byte[] readBytes(ByteBuffer buffer, int bytes) {
+        return ByteArrayNode.readByteArray(buffer, bytes);
+    }
+
+    /**
+     * check collection member count against [length]
+     */
+    public static void checkLength(int count, int length, String fieldName) {
+        if (length > 0 && count > length) {
+            throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [length] should be larger");
+        }
+    }
+
+    /**
+     * fill unused bytes of a fixed-size field with zero, target buffer may hold stale data
+     */
+    public static void pad(ByteBuffer buffer, int count) {
+        while (count > 0) {
+            int size = Math.min(count, ZEROS.length);
+            buffer.put(ZEROS, 0, size);
+            count -= size;
+        }
+    }
+
+    /**
+     * write byte size or member count as unsigned [prefix]-byte length prefix
+     *
+     * @param prefix [prefix] value, 1 to 4
+     * @throws TairaIllegalValueException when count does not fit in [prefix] bytes
+     */
+    public static void writeLengthPrefix(ByteBuffer buffer, int count, int prefix, String fieldName)
+        throws TairaIllegalValueException {
+        if (prefix < 4 && count >>> (prefix * 8) != 0) {
+            throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [prefix] should be larger");
+        }
+        TairaPrimitive.putLowerBytes(buffer, count, prefix);
+    }
+
+    /**
+     * read unsigned [prefix]-byte length prefix
+     *
+     * every byte or member takes one byte at least, a count beyond buffer remains is rejected before allocating
+     */
+    public static int readLengthPrefix(ByteBuffer buffer, int prefix) {
+        long count = TairaPrimitive.getBytesToLong(buffer, prefix) & (0xFFFFFFFFL >>> (32 - prefix * 8));
+        if (count > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return (int) count;
+    }
+
+    /**
+     * write String after its byte size as length prefix, prefix is filled in after encoding so it is encoded once
+     *
+     * @param bytes [bytes] value as limit, unlimited when lesser than or equal to 0
+     */
+    public static void writePrefixedString(ByteBuffer buffer, String value, int prefix, int bytes, Charset charset,
+                                           String fieldName) {
+        int start = buffer.position();
+        pad(buffer, prefix);
+        StringCodec.write(buffer, value, 0, charset, fieldName);
+        int end = buffer.position();
+        int size = end - start - prefix;
+        buffer.position(start);
+        if (bytes > 0 && size > bytes) {
+            throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [bytes] should be larger");
+        }
+        writeLengthPrefix(buffer, size, prefix, fieldName);
+        buffer.position(end);
+    }
+
+    /**
+     * write byte array after its size as length prefix
+     *
+     * @param bytes [bytes] value as limit, unlimited when lesser than or equal to 0
+     */
+    public static void writePrefixedBytes(ByteBuffer buffer, byte[] value, int prefix, int bytes, String fieldName) {
+        int size = value == null ? 0 : value.length;
+        if (bytes > 0 && size > bytes) {
+            throw new TairaIllegalValueException("Field [" + fieldName + "] overflow, [bytes] should be larger");
+        }
+        writeLengthPrefix(buffer, size, prefix, fieldName);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    public static String readPrefixedString(ByteBuffer buffer, int prefix, Charset charset) {
+        int size = readLengthPrefix(buffer, prefix);
+        return size == 0 ? "" : StringCodec.read(buffer, size, charset);
+    }
+
+    public static byte[] readPrefixedBytes(ByteBuffer buffer, int prefix) {
+        byte[] value = new byte[readLengthPrefix(buffer, prefix)];
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * byte size of an int as unsigned varint (LEB128), 7 bits per byte with high bit as continuation flag
+     */
+    public static int sizeOfUnsignedVarInt(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    public static int sizeOfUnsignedVarLong(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    public static void writeUnsignedVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * @throws TairaIllegalValueException when more than {@link #MAX_VAR_INT_SIZE} bytes
+     */
+    public static int readUnsignedVarInt(ByteBuffer buffer) throws TairaIllegalValueException {
+        int b = buffer.get();
+        if (b >= 0) {
+            return b;
+        }
+        int value = b & 0x7F;
+        for (int shift = 7; shift < 7 * MAX_VAR_INT_SIZE; shift += 7) {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw malformedVarInt();
+    }
+
+    public static void writeUnsignedVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * @throws TairaIllegalValueException when more than {@link #MAX_VAR_LONG_SIZE} bytes
+     */
+    public static long readUnsignedVarLong(ByteBuffer buffer) throws TairaIllegalValueException {
+        long b = buffer.get();
+        if (b >= 0) {
+            return b;
+        }
+        long value = b & 0x7F;
+        for (int shift = 7; shift < 7 * MAX_VAR_LONG_SIZE; shift += 7) {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw malformedVarInt();
+    }
+
+    /**
+     * map signed value to unsigned so that small negatives stay small: 0, -1, 1, -2 to 0, 1, 2, 3
+     */
+    public static int encodeZigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int decodeZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static long encodeZigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long decodeZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * byte size of char as varint, ZigZag mapped first when [zigZag]
+     */
+    public static int sizeOfVarChar(char value, boolean zigZag) {
+        return sizeOfUnsignedVarInt(zigZag ? encodeZigZag((int) value) : value);
+    }
+
+    public static void writeVarChar(ByteBuffer buffer, char value, boolean zigZag) {
+        writeUnsignedVarInt(buffer, zigZag ? encodeZigZag((int) value) : value);
+    }
+
+    public static char readVarChar(ByteBuffer buffer, boolean zigZag) {
+        int value = readUnsignedVarInt(buffer);
+        return (char) (zigZag ? decodeZigZag(value) : value);
+    }
+
+    /**
+     * byte size of short as varint, as unsigned 16 bits unless [zigZag]
+     */
+    public static int sizeOfVarShort(short value, boolean zigZag) {
+        return sizeOfUnsignedVarInt(zigZag ? encodeZigZag((int) value) : value & 0xFFFF);
+    }
+
+    public static void writeVarShort(ByteBuffer buffer, short value, boolean zigZag) {
+        writeUnsignedVarInt(buffer, zigZag ? encodeZigZag((int) value) : value & 0xFFFF);
+    }
+
+    public static short readVarShort(ByteBuffer buffer, boolean zigZag) {
+        int value = readUnsignedVarInt(buffer);
+        return (short) (zigZag ? decodeZigZag(value) : value);
+    }
+
+    /**
+     * byte size of int as varint, as unsigned 32 bits unless [zigZag]
+     */
+    public static int sizeOfVarInt(int value, boolean zigZag) {
+        return sizeOfUnsignedVarInt(zigZag ? encodeZigZag(value) : value);
+    }
+
+    public static void writeVarInt(ByteBuffer buffer, int value, boolean zigZag) {
+        writeUnsignedVarInt(buffer, zigZag ? encodeZigZag(value) : value);
+    }
+
+    public static int readVarInt(ByteBuffer buffer, boolean zigZag) {
+        int value = readUnsignedVarInt(buffer);
+        return zigZag ? decodeZigZag(value) : value;
+    }
+
+    /**
+     * byte size of long as varint, as unsigned 64 bits unless [zigZag]
+     */
+    public static int sizeOfVarLong(long value, boolean zigZag) {
+        return sizeOfUnsignedVarLong(zigZag ? encodeZigZag(value) : value);
+    }
+
+    public static void writeVarLong(ByteBuffer buffer, long value, boolean zigZag) {
+        writeUnsignedVarLong(buffer, zigZag ? encodeZigZag(value) : value);
+    }
+
+    public static long readVarLong(ByteBuffer buffer, boolean zigZag) {
+        long value = readUnsignedVarLong(buffer);
+        return zigZag ? decodeZigZag(value) : value;
+    }
+
+    private static TairaIllegalValueException malformedVarInt() {
+        return new TairaIllegalValueException("Malformed varint, too many continuation bytes");
+    }
+
+    private static TairaIllegalValueException overflow(Object value) {
+        return new TairaIllegalValueException("Value [" + value + "] overflow, [bytes] should be larger");
+    }
+}
@@ -21,75 +21,307 @@
  */
 package com.gotokeep.keep.taira;
 
+import com.gotokeep.keep.taira.annotation.ParamField;
 import com.gotokeep.keep.taira.exception.TairaInternalException;
 
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * node for processing TairaData
  */
+@SuppressWarnings({ "unchecked" })
 class TairaDataNode extends Node {
 
     /**
      * child field nodes
      */
-    private List<Node> children = new LinkedList<>();
+    private final List<Node> children = new ArrayList<>();
+
+    /**
+     * flat plan compiled from children, null when generated
+     */
+    private TairaPlan plan;
 
     /**
      * charset
      */
     private Charset charset;
 
+    /**
+     * compile-time generated serializer, used instead of children when present
+     */
+    private TairaSerializer generated;
+
+    /**
+     * instance factory, null when generated
+     */
+    private InstanceFactory factory;
+
+    /**
+     * byte size range, computed once when built
+     */
+    private int minSize;
+
+    private int maxSize;
+
+    /**
+     * constant byte size, {@link TairaSchema#UNBOUNDED} if variable
+     */
+    private int fixedSize;
+
+    /**
+     * equivalent node with reflective children, built once on first request when generated
+     */
+    private volatile TairaDataNode reflective;
+
     TairaDataNode(Class clazz, Charset charset) {
+        this(clazz, charset, ReflectionUtils.findGeneratedSerializer(clazz));
+    }
+
+    /**
+     * root node with a generated serializer already looked up, null if not generated
+     */
+    TairaDataNode(Class clazz, Charset charset, TairaSerializer generated) {
         super(clazz);
         this.charset = charset;
-        generateChildren();
+        initialize(generated);
     }
 
     private TairaDataNode(Field field, Charset charset) {
         super(field);
         this.charset = charset;
-        generateChildren();
+        initialize(ReflectionUtils.findGeneratedSerializer(clazz));
     }
 
     @Override
     public int evaluateSize(Object value) {
+        if (fixedSize != TairaSchema.UNBOUNDED) {
+            return fixedSize;
+        }
+        if (generated != null) {
+            return generated.evaluateSize((TairaData) value, charset);
+        }
         int byteSize = 0;
         for (Node node : children) {
-            byteSize += node.evaluateSize(ReflectionUtils.getFieldValue(value, node.field));
+            byteSize += node.evaluateFieldSize(value);
         }
         return byteSize;
     }
 
     @Override
     public void serialize(ByteBuffer buffer, Object value) {
-        if (value == null) {
-            buffer.position(buffer.position() + evaluateSize(null));
+        if (generated != null) {
+            generated.serialize(buffer, (TairaData) value, charset);
             return;
         }
-        for (Node node : children) {
-            node.serialize(buffer, ReflectionUtils.getFieldValue(value, node.field));
+        if (value == null) {
+            TairaCodec.pad(buffer, evaluateSize(null));
+            return;
         }
+        plan.serialize(buffer, value);
     }
 
     @Override
     public Object deserialize(ByteBuffer buffer) {
-        Object value = ReflectionUtils.createParamInstance(clazz);
-        for (Node node : children) {
-            ReflectionUtils.setField(value, node.field, node.deserialize(buffer));
+        if (generated != null) {
+            return generated.deserialize(buffer, charset);
         }
+        Object value = factory.newInstance();
+        plan.deserialize(buffer, value);
         return value;
     }
 
+    @Override
+    int minSize() {
+        return minSize;
+    }
+
+    @Override
+    void skip(ByteBuffer buffer) {
+        if (isFixedSize()) {
+            super.skip(buffer);
+        } else if (generated != null) {
+            // generated serializer tells no field boundary, decode and drop
+            generated.deserialize(buffer, charset);
+        } else {
+            for (Node node : children) {
+                node.skip(buffer);
+            }
+        }
+    }
+
+    @Override
+    int maxSize() {
+        return maxSize;
+    }
+
+    boolean isGenerated() {
+        return generated != null;
+    }
+
+    /**
+     * this node, or an equivalent one with reflective children when generated
+     *
+     * the reflective one is cached, racing threads may both build it and one of the equal trees is kept
+     */
+    TairaDataNode reflective() {
+        if (generated == null) {
+            return this;
+        }
+        TairaDataNode node = reflective;
+        if (node == null) {
+            node = new TairaDataNode(clazz, charset, null);
+            reflective = node;
+        }
+        return node;
+    }
+
+    /**
+     * child field nodes in serialization order, empty when generated
+     */
+    List<Node> children() {
+        return children;
+    }
+
+    /**
+     * skip children one by one from buffer position and record where each one ends, only available when not generated
+     */
+    void skipChildren(ByteBuffer buffer, int[] ends) {
+        int i = 0;
+        for (Node node : children) {
+            node.skip(buffer);
+            ends[i++] = buffer.position();
+        }
+    }
+
+    /**
+     * new empty instance, only available when not generated
+     */
+    Object newInstance() {
+        return factory.newInstance();
+    }
+
+    /**
+     * build static layout from child nodes, only available when not generated
+     */
+    TairaSchema createSchema() {
+        if (generated != null) {
+            throw new TairaInternalException("Schema of class [" + clazz.getName() + "] needs reflective children");
+        }
+        List<TairaSchema.FieldLayout> layouts = new ArrayList<>(children.size());
+        int offset = 0;
+        for (Node node : children) {
+            if (node instanceof BitGroupNode) {
+                // members share the group bytes
+                for (BitFieldNode member : ((BitGroupNode) node).members()) {
+                    layouts.add(new TairaSchema.FieldLayout(member.field.getName(), offset, node.minSize(),
+                        node.maxSize(), member, null));
+                }
+                offset = offset == TairaSchema.UNBOUNDED ? offset : offset + node.minSize();
+                continue;
+            }
+            TairaSchema nested = null;
+            if (node instanceof TairaDataNode) {
+                nested = ((TairaDataNode) node).reflective().createSchema();
+            }
+            layouts.add(new TairaSchema.FieldLayout(node.field.getName(), offset, node.minSize(), node.maxSize(), node,
+                nested));
+            if (offset != TairaSchema.UNBOUNDED) {
+                // offsets after a variable-size field depend on the value
+                offset = node.isFixedSize() ? offset + node.minSize() : TairaSchema.UNBOUNDED;
+            }
+        }
+        return new TairaSchema(clazz, minSize, maxSize, layouts);
+    }
+
+    /**
+     * prefer generated serializer, otherwise build child nodes reflectively
+     */
+    private void initialize(TairaSerializer generated) {
+        this.generated = generated;
+        if (generated == null) {
+            factory = ReflectionUtils.createInstanceFactory(clazz);
+            generateChildren();
+            evaluateLayout();
+            plan = TairaPlan.compile(children);
+        } else {
+            // generated serializer only tells the size without variable fields
+            minSize = generated.evaluateSize(null, charset);
+            maxSize = hasVariableField(clazz) ? TairaSchema.UNBOUNDED : minSize;
+        }
+        fixedSize = minSize == maxSize ? minSize : TairaSchema.UNBOUNDED;
+    }
+
+    /**
+     * tell variable size from annotations, varint or prefixed fields, nested TairaData of variable size or a tail field
+     * without [bytes] or [length]
+     */
+    private static boolean hasVariableField(Class clazz) {
+        List<Field> fields = AnnotationUtils.getSortedParamFields(clazz);
+        if (fields.isEmpty()) {
+            return false;
+        }
+        for (Field field : fields) {
+            ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
+            if (annotation.encoding() != ParamField.Encoding.FIXED || annotation.prefix() > 0) {
+                return true;
+            }
+            Class type = field.getType();
+            if (!TairaTypeConst.isTairaClass(type) && !TairaTypeConst.isByteArray(field)
+                && (TairaTypeConst.isSupportedCollection(type) || type.isArray())) {
+                type = ReflectionUtils.getCollectionFirstMemberType(field);
+            }
+            if (TairaTypeConst.isTairaClass(type) && hasVariableField(type)) {
+                return true;
+            }
+        }
+        Field tail = fields.get(fields.size() - 1);
+        ParamField annotation = ReflectionUtils.getAnnotation(tail, ParamField.class);
+        if (TairaTypeConst.isByteArray(tail)) {
+            return annotation.bytes() <= 0;
+        }
+        if (TairaTypeConst.isSupportedCollection(tail.getType()) || tail.getType().isArray()) {
+            return annotation.length() <= 0;
+        }
+        return false;
+    }
+
+    private void evaluateLayout() {
+        minSize = 0;
+        maxSize = 0;
+        for (Node node : children) {
+            minSize += node.minSize();
+            if (maxSize != TairaSchema.UNBOUNDED) {
+                maxSize = node.maxSize() == TairaSchema.UNBOUNDED ? TairaSchema.UNBOUNDED : maxSize + node.maxSize();
+            }
+        }
+    }
+
     private void generateChildren() {
         children.clear();
         List<Field> fields = AnnotationUtils.getSortedParamFields(clazz);
+        // group of consecutive [bits] fields being filled
+        BitGroupNode bitGroup = null;
         for (Field field : fields) {
+            ParamField annotation = ReflectionUtils.getAnnotation(field, ParamField.class);
+            if (annotation.bits() > 0) {
+                if (bitGroup == null) {
+                    bitGroup = new BitGroupNode(clazz);
+                    children.add(bitGroup);
+                }
+                bitGroup.add(field);
+                continue;
+            }
+            bitGroup = null;
             TairaPrimitive primitive = TairaTypeConst.findPrimitive(field.getType());
+            if (primitive != null && annotation.encoding() != ParamField.Encoding.FIXED) {
+                children.add(new VarIntNode(field, primitive, annotation.encoding()));
+                continue;
+            }
             if (primitive != null) {
                 children.add(new PrimitiveNode(field, primitive));
                 continue;
@@ -102,6 +334,11 @@ class TairaDataNode extends Node {
                 children.add(new ByteArrayNode(field, charset));
                 continue;
             }
+            if (TairaTypeConst.isPrimitiveArray(field) && annotation.encoding() == ParamField.Encoding.FIXED) {
+                children.add(new PrimitiveArrayNode(field,
+                    TairaTypeConst.findPrimitive(field.getType().getComponentType())));
+                continue;
+            }
             if (TairaTypeConst.isSupportedCollection(field.getType()) || field.getType().isArray()) {
                 children.add(new CollectionNode(field, charset));
                 continue;
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaAnnotationException;
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * decode frames of one stream written by {@link TairaDeltaEncoder}
+ *
+ * the whole encoded record is rebuilt from changed fields of a delta frame and unchanged fields of the previous record,
+ * then deserialized as usual. a delta frame not following the previous frame is rejected until next keyframe. not
+ * thread safe, one decoder per stream
+ */
+public class TairaDeltaDecoder<T extends TairaData> {
+
+    private final Class<T> clazz;
+
+    private final TairaDataNode root;
+
+    /**
+     * reflective root, tells field boundaries of encoded records
+     */
+    private final TairaDataNode fields;
+
+    /**
+     * reflective child nodes in serialization order
+     */
+    private final Node[] children;
+
+    private final ByteOrder order;
+
+    private final int bitmapSize;
+
+    private ByteBuffer current;
+
+    private int[] currentEnds;
+
+    /**
+     * last decoded record, null before a keyframe
+     */
+    private ByteBuffer previous;
+
+    private int[] previousEnds;
+
+    private int sequence;
+
+    public TairaDeltaDecoder(Taira taira, Class<T> clazz) throws TairaAnnotationException {
+        this.clazz = clazz;
+        this.root = taira.getTairaNode(clazz);
+        this.fields = TairaDeltaEncoder.reflective(root, clazz);
+        this.order = taira.getOrder();
+        this.children = fields.children().toArray(new Node[0]);
+        int fieldCount = children.length;
+        this.bitmapSize = TairaDeltaEncoder.bitmapSize(fieldCount);
+        this.currentEnds = new int[fieldCount];
+        this.previousEnds = new int[fieldCount];
+    }
+
+    public T decode(byte[] frame) throws TairaIllegalValueException {
+        return decode(ByteBuffer.wrap(frame));
+    }
+
+    /**
+     * decode next frame of the stream from buffer position to limit, buffer is left at limit
+     *
+     * @throws TairaIllegalValueException when frame is malformed, or a delta frame comes before a keyframe or after a
+     * lost frame
+     */
+    @SuppressWarnings("unchecked")
+    public T decode(ByteBuffer frame) throws TairaIllegalValueException {
+        if (!frame.hasRemaining()) {
+            throw new TairaIllegalValueException("Frame should not be empty");
+        }
+        ByteOrder frameOrder = frame.order();
+        try {
+            frame.order(order);
+            int header = frame.get() & 0xFF;
+            int frameSequence = header & TairaDeltaEncoder.SEQUENCE_MASK;
+            if ((header & TairaDeltaEncoder.KEYFRAME) != 0) {
+                current = TairaDeltaEncoder.prepare(current, frame.remaining(), order);
+                current.put(frame);
+                current.flip();
+                fields.skipChildren(current.duplicate().order(order), currentEnds);
+            } else {
+                if (previous == null) {
+                    throw new TairaIllegalValueException("Delta frame [" + frameSequence + "] comes before a keyframe");
+                }
+                if (frameSequence != ((sequence + 1) & TairaDeltaEncoder.SEQUENCE_MASK)) {
+                    previous = null;
+                    throw new TairaIllegalValueException("Delta frame [" + frameSequence + "] does not follow frame ["
+                        + sequence + "], wait for next keyframe");
+                }
+                rebuild(frame);
+            }
+            T value = (T) root.deserialize(current);
+            frame.position(frame.limit());
+
+            ByteBuffer buffer = previous;
+            previous = current;
+            current = buffer;
+            int[] ends = previousEnds;
+            previousEnds = currentEnds;
+            currentEnds = ends;
+            sequence = frameSequence;
+            return value;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // field skipped past frame limit
+            throw new TairaIllegalValueException("Frame is too short for class [" + clazz.getName() + "]");
+        } finally {
+            frame.order(frameOrder);
+        }
+    }
+
+    /**
+     * forget the previous record, delta frames are rejected until next keyframe
+     */
+    public void reset() {
+        previous = null;
+    }
+
+    /**
+     * rebuild whole encoded record into current buffer from delta frame and previous record, ready to read
+     */
+    private void rebuild(ByteBuffer frame) {
+        if (frame.remaining() < bitmapSize) {
+            throw new BufferUnderflowException();
+        }
+        int bitmapStart = frame.position();
+        frame.position(bitmapStart + bitmapSize);
+        // record is no larger than previous record and frame together
+        current = TairaDeltaEncoder.prepare(current, previous.limit() + frame.remaining(), order);
+        ByteBuffer source = frame.duplicate();
+        byte[] previousBytes = previous.array();
+        for (int i = 0; i < children.length; i++) {
+            if ((frame.get(bitmapStart + (i >> 3)) & (1 << (i & 7))) != 0) {
+                // changed field, variable-size tail reaches frame limit as it is the last one
+                int start = frame.position();
+                children[i].skip(frame);
+                source.limit(frame.position());
+                source.position(start);
+                current.put(source);
+            } else {
+                int start = i == 0 ? 0 : previousEnds[i - 1];
+                current.put(previousBytes, start, previousEnds[i] - start);
+            }
+            currentEnds[i] = current.position();
+        }
+        current.flip();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaAnnotationException;
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * encode records of one stream as changes against the previous record, decoded by {@link TairaDeltaDecoder}
+ *
+ * every frame starts with a header byte, the highest bit marks a keyframe and the lower 7 bits are the frame sequence.
+ * a keyframe carries the whole record as {@link Taira#toBytes(TairaData)} does. a delta frame carries a bitmap of
+ * changed ParamFields in order (lowest bit of the first byte first, consecutive [bits] fields count as one), followed
+ * by only the changed fields. fields are compared by their encoded bytes, so a record mutated in place between calls
+ * is fine. a keyframe is sent every [keyframeInterval] frames, on {@link #requestKeyframe()}, or when a delta frame
+ * would not be smaller. not thread safe, one encoder per stream
+ */
+public class TairaDeltaEncoder<T extends TairaData> {
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+    /**
+     * header bit of a keyframe
+     */
+    static final int KEYFRAME = 0x80;
+
+    /**
+     * header bits of frame sequence
+     */
+    static final int SEQUENCE_MASK = 0x7F;
+
+    private final TairaDataNode root;
+
+    /**
+     * reflective root, tells field boundaries of encoded records
+     */
+    private final TairaDataNode fields;
+
+    private final int keyframeInterval;
+
+    private final ByteOrder order;
+
+    private final int bitmapSize;
+
+    private ByteBuffer current;
+
+    private int[] currentEnds;
+
+    /**
+     * last encoded record, null when next frame should be a keyframe
+     */
+    private ByteBuffer previous;
+
+    private int[] previousEnds;
+
+    /**
+     * delta frames since last keyframe
+     */
+    private int deltaCount;
+
+    private int sequence;
+
+    public TairaDeltaEncoder(Taira taira, Class<T> clazz) throws TairaAnnotationException {
+        this(taira, clazz, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param keyframeInterval frames from a keyframe to the next one, 1 for keyframes only
+     */
+    public TairaDeltaEncoder(Taira taira, Class<T> clazz, int keyframeInterval)
+        throws TairaAnnotationException, TairaIllegalValueException {
+        if (keyframeInterval < 1) {
+            throw new TairaIllegalValueException("Keyframe interval [" + keyframeInterval + "] should be positive");
+        }
+        this.root = taira.getTairaNode(clazz);
+        this.fields = reflective(root, clazz);
+        this.keyframeInterval = keyframeInterval;
+        this.order = taira.getOrder();
+        int fieldCount = fields.children().size();
+        this.bitmapSize = bitmapSize(fieldCount);
+        this.currentEnds = new int[fieldCount];
+        this.previousEnds = new int[fieldCount];
+    }
+
+    /**
+     * encode next frame of the stream
+     *
+     * @return keyframe or delta frame
+     * @throws TairaIllegalValueException when value error or record is null, stream state is kept
+     */
+    public byte[] encode(T record) throws TairaIllegalValueException {
+        if (record == null) {
+            throw new TairaIllegalValueException("Record should not be null");
+        }
+        int size = root.evaluateSize(record);
+        current = prepare(current, size, order);
+        root.serialize(current, record);
+        current.flip();
+        try {
+            // duplicate is big-endian, order is set again for multi-byte length prefixes
+            fields.skipChildren(current.duplicate().order(order), currentEnds);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new TairaIllegalValueException("Encoded record of class [" + root.clazz.getName()
+                + "] does not split into its fields");
+        }
+
+        byte[] frame = null;
+        if (previous != null && deltaCount + 1 < keyframeInterval) {
+            frame = encodeDelta(size);
+        }
+        if (frame == null) {
+            frame = new byte[1 + size];
+            frame[0] = (byte) (KEYFRAME | sequence);
+            System.arraycopy(current.array(), 0, frame, 1, size);
+            deltaCount = 0;
+        } else {
+            deltaCount++;
+        }
+
+        ByteBuffer buffer = previous;
+        previous = current;
+        current = buffer;
+        int[] ends = previousEnds;
+        previousEnds = currentEnds;
+        currentEnds = ends;
+        sequence = (sequence + 1) & SEQUENCE_MASK;
+        return frame;
+    }
+
+    /**
+     * send a keyframe next, e.g. when a receiver joins or reports lost frames
+     */
+    public void requestKeyframe() {
+        previous = null;
+    }
+
+    /**
+     * delta frame of current record, null if not smaller than a keyframe
+     */
+    private byte[] encodeDelta(int size) {
+        byte[] bytes = current.array();
+        byte[] previousBytes = previous.array();
+        byte[] bitmap = new byte[bitmapSize];
+        int frameSize = 1 + bitmapSize;
+        for (int i = 0; i < currentEnds.length; i++) {
+            int start = i == 0 ? 0 : currentEnds[i - 1];
+            int previousStart = i == 0 ? 0 : previousEnds[i - 1];
+            if (!rangeEquals(bytes, start, currentEnds[i], previousBytes, previousStart, previousEnds[i])) {
+                bitmap[i >> 3] |= 1 << (i & 7);
+                frameSize += currentEnds[i] - start;
+            }
+        }
+        if (frameSize >= 1 + size) {
+            return null;
+        }
+        byte[] frame = new byte[frameSize];
+        frame[0] = (byte) sequence;
+        System.arraycopy(bitmap, 0, frame, 1, bitmapSize);
+        int position = 1 + bitmapSize;
+        for (int i = 0; i < currentEnds.length; i++) {
+            if ((bitmap[i >> 3] & (1 << (i & 7))) != 0) {
+                int start = i == 0 ? 0 : currentEnds[i - 1];
+                System.arraycopy(bytes, start, frame, position, currentEnds[i] - start);
+                position += currentEnds[i] - start;
+            }
+        }
+        return frame;
+    }
+
+    private static boolean rangeEquals(byte[] left, int leftStart, int leftEnd, byte[] right, int rightStart,
+                                       int rightEnd) {
+        if (leftEnd - leftStart != rightEnd - rightStart) {
+            return false;
+        }
+        for (int i = leftStart, j = rightStart; i < leftEnd; i++, j++) {
+            if (left[i] != right[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * reflective root to walk fields of encoded records, annotations are checked when root is generated
+     */
+    static TairaDataNode reflective(TairaDataNode root, Class<? extends TairaData> clazz) {
+        if (root.isGenerated()) {
+            AnnotationUtils.checkAnnotationOrThrow(clazz);
+        }
+        return root.reflective();
+    }
+
+    static int bitmapSize(int fieldCount) {
+        return (fieldCount + 7) / 8;
+    }
+
+    /**
+     * clear buffer for [size] bytes, a larger one is allocated when needed
+     */
+    static ByteBuffer prepare(ByteBuffer buffer, int size, ByteOrder order) {
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer == null ? 0 : buffer.capacity() * 2)).order(order);
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+/**
+ * receive per-call events of a {@link Taira} instance, e.g. {@link TairaMetrics}
+ *
+ * callbacks run on the calling thread inside every serialize/deserialize call, so they should be cheap and must not
+ * throw. all methods do nothing by default, override the ones of interest
+ */
+public abstract class TairaListener {
+
+    private static final TairaListener NONE = new TairaListener() {};
+
+    /**
+     * listener receiving nothing, Taira skips timing and callbacks altogether with it
+     */
+    public static TairaListener none() {
+        return NONE;
+    }
+
+    /**
+     * a serialize/deserialize call starts on the calling thread, it ends with {@link #onSerialize},
+     * {@link #onDeserialize} or {@link #onError} on the same thread
+     */
+    public void onStart() {
+    }
+
+    /**
+     * one record or batch of records was serialized
+     *
+     * @param clazz TairaData type
+     * @param bytes written byte count
+     * @param nanos time spent, including node lookup and sizing
+     */
+    public void onSerialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+    }
+
+    /**
+     * one record or batch of records was deserialized
+     *
+     * @param clazz TairaData type
+     * @param bytes consumed byte count
+     * @param nanos time spent, including node lookup
+     */
+    public void onDeserialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+    }
+
+    /**
+     * root node of a class was looked up
+     *
+     * @param clazz TairaData type
+     * @param hit whether the node was already cached
+     */
+    public void onNodeLookup(Class<? extends TairaData> clazz, boolean hit) {
+    }
+
+    /**
+     * root node of a class was built after a missed lookup, including annotation checks and class loading triggered by
+     * reflection. a failed build ends with {@link #onError} instead
+     *
+     * @param clazz TairaData type
+     * @param nanos time spent
+     */
+    public void onNodeBuild(Class<? extends TairaData> clazz, long nanos) {
+    }
+
+    /**
+     * a serialize/deserialize call or a node build failed, the exception is still thrown or handled as before. a
+     * build failing inside a call is reported once and ends that call as well
+     *
+     * @param clazz TairaData type, null if unknown
+     * @param e failure
+     */
+    public void onError(Class<? extends TairaData> clazz, RuntimeException e) {
+    }
+}
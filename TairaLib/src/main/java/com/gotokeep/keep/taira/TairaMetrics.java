@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock-free counters and log2 histograms per TairaData class, read at any time while being updated
+ *
+ * every event costs a map lookup and a few atomic adds, cheap enough to stay enabled under load. values read while
+ * calls are in flight may be off by those calls
+ */
+public class TairaMetrics extends TairaListener {
+
+    private final ConcurrentMap<Class<? extends TairaData>, Stats> stats = new ConcurrentHashMap<>();
+
+    private final AtomicLong nodeHits = new AtomicLong();
+
+    private final AtomicLong nodeMisses = new AtomicLong();
+
+    private final AtomicLong nodeBuildNanos = new AtomicLong();
+
+    @Override
+    public void onSerialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+        getOrCreate(clazz).serialize.record(bytes, nanos);
+    }
+
+    @Override
+    public void onDeserialize(Class<? extends TairaData> clazz, int bytes, long nanos) {
+        getOrCreate(clazz).deserialize.record(bytes, nanos);
+    }
+
+    @Override
+    public void onNodeLookup(Class<? extends TairaData> clazz, boolean hit) {
+        (hit ? nodeHits : nodeMisses).incrementAndGet();
+    }
+
+    @Override
+    public void onNodeBuild(Class<? extends TairaData> clazz, long nanos) {
+        nodeBuildNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void onError(Class<? extends TairaData> clazz, RuntimeException e) {
+        getOrCreate(clazz == null ? TairaData.class : clazz).errors.incrementAndGet();
+    }
+
+    /**
+     * @return live stats of every class seen so far, errors of unknown class are under TairaData.class
+     */
+    public Map<Class<? extends TairaData>, Stats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * @return live stats of [clazz], null if not seen yet
+     */
+    public Stats getStats(Class<? extends TairaData> clazz) {
+        return stats.get(clazz);
+    }
+
+    public long getNodeCacheHits() {
+        return nodeHits.get();
+    }
+
+    public long getNodeCacheMisses() {
+        return nodeMisses.get();
+    }
+
+    /**
+     * @return total time spent building root nodes after cache misses
+     */
+    public long getNodeBuildNanos() {
+        return nodeBuildNanos.get();
+    }
+
+    private Stats getOrCreate(Class<? extends TairaData> clazz) {
+        Stats value = stats.get(clazz);
+        if (value == null) {
+            value = new Stats();
+            Stats existing = stats.putIfAbsent(clazz, value);
+            if (existing != null) {
+                value = existing;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * stats of one TairaData class
+     */
+    public static final class Stats {
+
+        private final Operation serialize = new Operation();
+
+        private final Operation deserialize = new Operation();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        Stats() {}
+
+        public Operation getSerialize() {
+            return serialize;
+        }
+
+        public Operation getDeserialize() {
+            return deserialize;
+        }
+
+        public long getErrorCount() {
+            return errors.get();
+        }
+    }
+
+    /**
+     * call count, totals and histograms of one direction
+     *
+     * bucket i of a histogram counts values whose highest set bit is bit i - 1, bucket 0 counts zero
+     */
+    public static final class Operation {
+
+        private static final int BUCKETS = Long.SIZE;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong bytes = new AtomicLong();
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        private final AtomicLongArray sizes = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+        Operation() {}
+
+        void record(int byteCount, long time) {
+            count.incrementAndGet();
+            bytes.addAndGet(byteCount);
+            nanos.addAndGet(time);
+            sizes.incrementAndGet(bucketOf(byteCount));
+            latencies.incrementAndGet(bucketOf(time));
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public long getNanos() {
+            return nanos.get();
+        }
+
+        /**
+         * @return copy of byte size histogram
+         */
+        public long[] getSizeHistogram() {
+            return copy(sizes);
+        }
+
+        /**
+         * @return copy of nanosecond latency histogram
+         */
+        public long[] getLatencyHistogram() {
+            return copy(latencies);
+        }
+
+        /**
+         * @param percentile in [0, 100]
+         * @return upper bound of the byte size bucket holding [percentile], 0 if nothing recorded
+         */
+        public long getSizePercentile(double percentile) {
+            return percentile(sizes, percentile);
+        }
+
+        /**
+         * @param percentile in [0, 100]
+         * @return upper bound in nanoseconds of the latency bucket holding [percentile], 0 if nothing recorded
+         */
+        public long getLatencyPercentile(double percentile) {
+            return percentile(latencies, percentile);
+        }
+
+        private static int bucketOf(long value) {
+            return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+        }
+
+        private static long[] copy(AtomicLongArray histogram) {
+            long[] values = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                values[i] = histogram.get(i);
+            }
+            return values;
+        }
+
+        private static long percentile(AtomicLongArray histogram, double percentile) {
+            long[] values = copy(histogram);
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += values[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
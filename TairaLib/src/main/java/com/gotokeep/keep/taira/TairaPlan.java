@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * flat, immutable serialization plan of one reflective TairaDataNode
+ *
+ * child nodes are compiled once into parallel arrays of opcodes and operands and executed in one loop. primitive
+ * typed fields are read/written by opcode, nested fixed-size TairaData is inlined between {@link #OP_ENTER} and
+ * {@link #OP_EXIT} and run as a sub-range of the plan, every other field falls back to its node
+ */
+final class TairaPlan {
+
+    private static final int OP_NODE = 0;
+
+    private static final int OP_BOOLEAN = 1;
+
+    private static final int OP_BYTE = 2;
+
+    private static final int OP_CHAR = 3;
+
+    private static final int OP_SHORT = 4;
+
+    private static final int OP_INT = 5;
+
+    private static final int OP_LONG = 6;
+
+    private static final int OP_FLOAT = 7;
+
+    private static final int OP_DOUBLE = 8;
+
+    /**
+     * run nested TairaData up to its {@link #OP_EXIT}, operands: accessor, width of the nested record, node of the
+     * nested TairaData, index of its {@link #OP_EXIT}
+     */
+    private static final int OP_ENTER = 9;
+
+    /**
+     * end of nested TairaData, never executed
+     */
+    private static final int OP_EXIT = 10;
+
+    private final int[] ops;
+
+    /**
+     * byte width of primitive fields and of nested records
+     */
+    private final int[] widths;
+
+    /**
+     * index of the matching {@link #OP_EXIT} for {@link #OP_ENTER}, unused otherwise
+     */
+    private final int[] exits;
+
+    private final FieldAccessor[] accessors;
+
+    /**
+     * node to fall back to, PrimitiveNode for range checks, TairaDataNode for nested instances
+     */
+    private final Node[] nodes;
+
+    private TairaPlan(Builder builder) {
+        int count = builder.ops.size();
+        ops = new int[count];
+        widths = new int[count];
+        exits = new int[count];
+        for (int i = 0; i < count; i++) {
+            ops[i] = builder.ops.get(i);
+            widths[i] = builder.widths.get(i);
+            exits[i] = builder.exits.get(i);
+        }
+        accessors = builder.accessors.toArray(new FieldAccessor[count]);
+        nodes = builder.nodes.toArray(new Node[count]);
+    }
+
+    /**
+     * compile child nodes of a reflective node
+     */
+    static TairaPlan compile(List<Node> children) {
+        Builder builder = new Builder();
+        builder.append(children);
+        return new TairaPlan(builder);
+    }
+
+    /**
+     * serialize non-null [value] into buffer
+     */
+    void serialize(ByteBuffer buffer, Object value) {
+        serialize(buffer, value, 0, ops.length);
+    }
+
+    /**
+     * serialize fields of [owner] with ops in [start, end), nested records recurse so no owner stack is allocated
+     */
+    private void serialize(ByteBuffer buffer, Object owner, int start, int end) {
+        for (int pc = start; pc < end; pc++) {
+            switch (ops[pc]) {
+                case OP_BOOLEAN:
+                    TairaPrimitive.putBoolean(buffer, accessors[pc].getBoolean(owner));
+                    break;
+                case OP_BYTE:
+                    buffer.put(accessors[pc].getByte(owner));
+                    break;
+                case OP_CHAR:
+                    ((PrimitiveNode) nodes[pc]).putLong(buffer, accessors[pc].getChar(owner));
+                    break;
+                case OP_SHORT:
+                    ((PrimitiveNode) nodes[pc]).putLong(buffer, accessors[pc].getShort(owner));
+                    break;
+                case OP_INT:
+                    ((PrimitiveNode) nodes[pc]).putLong(buffer, accessors[pc].getInt(owner));
+                    break;
+                case OP_LONG:
+                    ((PrimitiveNode) nodes[pc]).putLong(buffer, accessors[pc].getLong(owner));
+                    break;
+                case OP_FLOAT:
+                    ((PrimitiveNode) nodes[pc]).putFloat(buffer, accessors[pc].getFloat(owner));
+                    break;
+                case OP_DOUBLE:
+                    ((PrimitiveNode) nodes[pc]).putDouble(buffer, accessors[pc].getDouble(owner));
+                    break;
+                case OP_ENTER:
+                    Object nested = accessors[pc].get(owner);
+                    if (nested == null) {
+                        TairaCodec.pad(buffer, widths[pc]);
+                    } else {
+                        serialize(buffer, nested, pc + 1, exits[pc]);
+                    }
+                    pc = exits[pc];
+                    break;
+                default:
+                    nodes[pc].serializeField(buffer, owner);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * deserialize fields from buffer into [value]
+     */
+    void deserialize(ByteBuffer buffer, Object value) {
+        deserialize(buffer, value, 0, ops.length);
+    }
+
+    /**
+     * deserialize fields of [owner] with ops in [start, end)
+     */
+    private void deserialize(ByteBuffer buffer, Object owner, int start, int end) {
+        for (int pc = start; pc < end; pc++) {
+            switch (ops[pc]) {
+                case OP_BOOLEAN:
+                    accessors[pc].setBoolean(owner, TairaPrimitive.getBoolean(buffer));
+                    break;
+                case OP_BYTE:
+                    accessors[pc].setByte(owner, buffer.get());
+                    break;
+                case OP_CHAR:
+                    accessors[pc].setChar(owner, (char) TairaPrimitive.getBytesToLong(buffer, widths[pc]));
+                    break;
+                case OP_SHORT:
+                    accessors[pc].setShort(owner,
+                        (short) TairaPrimitive.getSignedBytesToLong(buffer, widths[pc]));
+                    break;
+                case OP_INT:
+                    accessors[pc].setInt(owner,
+                        (int) TairaPrimitive.getSignedBytesToLong(buffer, widths[pc]));
+                    break;
+                case OP_LONG:
+                    accessors[pc].setLong(owner, TairaPrimitive.getSignedBytesToLong(buffer, widths[pc]));
+                    break;
+                case OP_FLOAT:
+                    accessors[pc].setFloat(owner,
+                        Float.intBitsToFloat((int) TairaPrimitive.getBytesToLong(buffer, widths[pc])));
+                    break;
+                case OP_DOUBLE:
+                    accessors[pc].setDouble(owner,
+                        Double.longBitsToDouble(TairaPrimitive.getBytesToLong(buffer, widths[pc])));
+                    break;
+                case OP_ENTER:
+                    Object nested = ((TairaDataNode) nodes[pc]).newInstance();
+                    deserialize(buffer, nested, pc + 1, exits[pc]);
+                    accessors[pc].set(owner, nested);
+                    pc = exits[pc];
+                    break;
+                default:
+                    nodes[pc].deserializeField(buffer, owner);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * growable operand lists, frozen into arrays once compiled
+     */
+    private static class Builder {
+
+        private final List<Integer> ops = new ArrayList<>();
+
+        private final List<Integer> widths = new ArrayList<>();
+
+        private final List<Integer> exits = new ArrayList<>();
+
+        private final List<FieldAccessor> accessors = new ArrayList<>();
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        private void append(List<Node> children) {
+            for (Node node : children) {
+                if (node instanceof TairaDataNode && isInlined((TairaDataNode) node)) {
+                    TairaDataNode nested = (TairaDataNode) node;
+                    int enter = add(OP_ENTER, node.minSize(), node);
+                    append(nested.children());
+                    int exit = add(OP_EXIT, node.minSize(), node);
+                    exits.set(enter, exit);
+                    continue;
+                }
+                add(opcode(node), node.minSize(), node);
+            }
+        }
+
+        private int add(int op, int width, Node node) {
+            ops.add(op);
+            widths.add(width);
+            exits.add(0);
+            accessors.add(node.accessor);
+            nodes.add(node);
+            return ops.size() - 1;
+        }
+
+        /**
+         * only nested fixed-size records built reflectively are inlined, null ones are padded by their width
+         */
+        private static boolean isInlined(TairaDataNode node) {
+            return !node.isGenerated() && node.isFixedSize();
+        }
+
+        private static int opcode(Node node) {
+            if (!(node instanceof PrimitiveNode) || !node.clazz.isPrimitive()) {
+                return OP_NODE;
+            }
+            switch (((PrimitiveNode) node).type()) {
+                case BOOLEAN:
+                    return OP_BOOLEAN;
+                case BYTE:
+                    return OP_BYTE;
+                case CHAR:
+                    return OP_CHAR;
+                case SHORT:
+                    return OP_SHORT;
+                case INT:
+                    return OP_INT;
+                case LONG:
+                    return OP_LONG;
+                case FLOAT:
+                    return OP_FLOAT;
+                case DOUBLE:
+                    return OP_DOUBLE;
+                default:
+                    return OP_NODE;
+            }
+        }
+    }
+}
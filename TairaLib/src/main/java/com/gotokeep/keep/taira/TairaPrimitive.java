@@ -30,17 +30,14 @@ import java.nio.ByteOrder;
 enum TairaPrimitive implements PrimitiveProcessor {
 
     BOOLEAN {
-        private static final byte TRUE = 1;
-        private static final byte FALSE = 0;
-
         @Override
         public void serialize(Object value, ByteBuffer buffer, int size) {
-            buffer.put((Boolean) value ? TRUE : FALSE);
+            TairaPrimitive.putBoolean(buffer, (Boolean) value);
         }
 
         @Override
         public Object deserialize(ByteBuffer buffer, int size) {
-            return buffer.get() == TRUE;
+            return TairaPrimitive.getBoolean(buffer);
         }
 
         @Override
@@ -122,7 +119,7 @@ enum TairaPrimitive implements PrimitiveProcessor {
 
         @Override
         public Object deserialize(ByteBuffer buffer, int size) {
-            return (short) TairaPrimitive.getBytesToLong(buffer, size);
+            return (short) TairaPrimitive.getSignedBytesToLong(buffer, size);
         }
 
         @Override
@@ -149,7 +146,7 @@ enum TairaPrimitive implements PrimitiveProcessor {
 
         @Override
         public Object deserialize(ByteBuffer buffer, int size) {
-            return (int) TairaPrimitive.getBytesToLong(buffer, size);
+            return (int) TairaPrimitive.getSignedBytesToLong(buffer, size);
         }
 
         @Override
@@ -232,7 +229,7 @@ enum TairaPrimitive implements PrimitiveProcessor {
 
         @Override
         public Object deserialize(ByteBuffer buffer, int size) {
-            return TairaPrimitive.getBytesToLong(buffer, size);
+            return TairaPrimitive.getSignedBytesToLong(buffer, size);
         }
 
         @Override
@@ -251,44 +248,193 @@ enum TairaPrimitive implements PrimitiveProcessor {
         }
     };
 
+    private static final byte TRUE = 1;
+
+    private static final byte FALSE = 0;
+
+    /**
+     * put boolean value into buffer
+     */
+    static void putBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put(value ? TRUE : FALSE);
+    }
+
+    /**
+     * get boolean value from buffer
+     */
+    static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() == TRUE;
+    }
+
     /**
      * put long value lower bytes into buffer
      *
+     * natural widths go through putShort/putInt/putLong, narrowed widths are combined from at most three puts in
+     * buffer order
+     *
      * @param buffer buffer
      * @param longVal long value
      * @param size lower bytes count
      */
-    private static void putLowerBytes(ByteBuffer buffer, long longVal, int size) {
-        for (int i = size; i > 0; i--) {
-            int shift;
-            if (buffer.order() == ByteOrder.LITTLE_ENDIAN) {
-                shift = size - i;
-            } else {
-                shift = i - 1;
-            }
-            byte lastByte = (byte) ((longVal >>> (8 * shift)) & 0xFF);
-            buffer.put(lastByte);
+    static void putLowerBytes(ByteBuffer buffer, long longVal, int size) {
+        switch (size) {
+            case 1:
+                buffer.put((byte) longVal);
+                break;
+            case 2:
+                buffer.putShort((short) longVal);
+                break;
+            case 4:
+                buffer.putInt((int) longVal);
+                break;
+            case 8:
+                buffer.putLong(longVal);
+                break;
+            default:
+                if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+                    putBigEndian(buffer, longVal, size);
+                } else {
+                    putLittleEndian(buffer, longVal, size);
+                }
+                break;
+        }
+    }
+
+    /**
+     * get bytes from buffer and cast to long value, zero-extended
+     *
+     * used for unsigned values and raw floating bits
+     *
+     * @param buffer buffer
+     * @param size byte size
+     * @return long value
+     */
+    static long getBytesToLong(ByteBuffer buffer, int size) {
+        switch (size) {
+            case 1:
+                return buffer.get() & 0xFFL;
+            case 2:
+                return buffer.getShort() & 0xFFFFL;
+            case 4:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            case 8:
+                return buffer.getLong();
+            default:
+                return buffer.order() == ByteOrder.BIG_ENDIAN ? getBigEndian(buffer, size)
+                    : getLittleEndian(buffer, size);
         }
     }
 
     /**
-     * get bytes from buffer and cast to long value
+     * get bytes from buffer and cast to long value, sign-extended from the highest stored bit
+     *
+     * narrowed short/int/long fields are range checked as signed on encode, so they decode through here. at natural
+     * width it is the same as {@link #getBytesToLong(ByteBuffer, int)} after the cast to the field type
      *
      * @param buffer buffer
      * @param size byte size
      * @return long value
      */
-    private static long getBytesToLong(ByteBuffer buffer, int size) {
-        long longValue = 0;
-        for (int i = 0; i < size; i++) {
-            byte byteValue = buffer.get();
-            if (buffer.order() == ByteOrder.LITTLE_ENDIAN) {
-                longValue += ((long) byteValue & 0xffL) << (8 * i);
-            } else {
-                longValue = (longValue << 8) + (byteValue & 0xff);
-            }
-        }
-        return longValue;
+    static long getSignedBytesToLong(ByteBuffer buffer, int size) {
+        switch (size) {
+            case 1:
+                return buffer.get();
+            case 2:
+                return buffer.getShort();
+            case 4:
+                return buffer.getInt();
+            case 8:
+                return buffer.getLong();
+            default:
+                int shift = 64 - 8 * size;
+                return getBytesToLong(buffer, size) << shift >> shift;
+        }
+    }
+
+    /**
+     * 3, 5, 6 or 7 bytes, high part first
+     */
+    private static void putBigEndian(ByteBuffer buffer, long longVal, int size) {
+        switch (size) {
+            case 3:
+                buffer.put((byte) (longVal >>> 16));
+                buffer.putShort((short) longVal);
+                break;
+            case 5:
+                buffer.put((byte) (longVal >>> 32));
+                buffer.putInt((int) longVal);
+                break;
+            case 6:
+                buffer.putShort((short) (longVal >>> 32));
+                buffer.putInt((int) longVal);
+                break;
+            case 7:
+                buffer.put((byte) (longVal >>> 48));
+                buffer.putShort((short) (longVal >>> 32));
+                buffer.putInt((int) longVal);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 3, 5, 6 or 7 bytes, low part first
+     */
+    private static void putLittleEndian(ByteBuffer buffer, long longVal, int size) {
+        switch (size) {
+            case 3:
+                buffer.putShort((short) longVal);
+                buffer.put((byte) (longVal >>> 16));
+                break;
+            case 5:
+                buffer.putInt((int) longVal);
+                buffer.put((byte) (longVal >>> 32));
+                break;
+            case 6:
+                buffer.putInt((int) longVal);
+                buffer.putShort((short) (longVal >>> 32));
+                break;
+            case 7:
+                buffer.putInt((int) longVal);
+                buffer.putShort((short) (longVal >>> 32));
+                buffer.put((byte) (longVal >>> 48));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long getBigEndian(ByteBuffer buffer, int size) {
+        switch (size) {
+            case 3:
+                return (buffer.get() & 0xFFL) << 16 | buffer.getShort() & 0xFFFFL;
+            case 5:
+                return (buffer.get() & 0xFFL) << 32 | buffer.getInt() & 0xFFFFFFFFL;
+            case 6:
+                return (buffer.getShort() & 0xFFFFL) << 32 | buffer.getInt() & 0xFFFFFFFFL;
+            case 7:
+                long high = (buffer.get() & 0xFFL) << 48;
+                return high | (buffer.getShort() & 0xFFFFL) << 32 | buffer.getInt() & 0xFFFFFFFFL;
+            default:
+                return 0;
+        }
+    }
+
+    private static long getLittleEndian(ByteBuffer buffer, int size) {
+        switch (size) {
+            case 3:
+                return buffer.getShort() & 0xFFFFL | (buffer.get() & 0xFFL) << 16;
+            case 5:
+                return buffer.getInt() & 0xFFFFFFFFL | (buffer.get() & 0xFFL) << 32;
+            case 6:
+                return buffer.getInt() & 0xFFFFFFFFL | (buffer.getShort() & 0xFFFFL) << 32;
+            case 7:
+                long low = buffer.getInt() & 0xFFFFFFFFL;
+                return low | (buffer.getShort() & 0xFFFFL) << 32 | (buffer.get() & 0xFFL) << 48;
+            default:
+                return 0;
+        }
     }
 
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * precompiled partial decoder, only the selected fields are decoded and the others keep default values
+ *
+ * unselected fields are jumped over by their fixed offsets, or skipped by size, and never instantiated. fields are
+ * selected by name or dotted path into nested TairaData, a nested TairaData partially selected is built with only those
+ * fields. thread safe once created
+ */
+public final class TairaProjection<T extends TairaData> {
+
+    private final Class<T> clazz;
+
+    private final ByteOrder order;
+
+    private final Plan plan;
+
+    TairaProjection(Class<T> clazz, TairaDataNode root, ByteOrder order, String... paths) {
+        this.clazz = clazz;
+        this.order = order;
+        this.plan = new Plan(root.reflective(), Arrays.asList(paths));
+    }
+
+    public Class<T> getType() {
+        return clazz;
+    }
+
+    /**
+     * decode selected fields from byte array
+     */
+    public T fromBytes(byte[] data) throws TairaIllegalValueException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return fromByteBuffer(ByteBuffer.wrap(data).order(order));
+    }
+
+    /**
+     * decode selected fields from buffer position, buffer is left after the last selected field
+     */
+    @SuppressWarnings("unchecked")
+    public T fromByteBuffer(ByteBuffer data) throws TairaIllegalValueException {
+        if (data == null || !data.hasRemaining()) {
+            return null;
+        }
+        try {
+            return (T) plan.decode(data);
+        } catch (BufferUnderflowException e) {
+            throw new TairaIllegalValueException("Data is too short for projection of class [" + clazz.getName() + "]");
+        }
+    }
+
+    /**
+     * decode steps of one TairaData class
+     */
+    private static final class Plan {
+
+        private final TairaDataNode node;
+
+        /**
+         * all child nodes in serialization order
+         */
+        private final Node[] children;
+
+        /**
+         * indices of selected children, ascending
+         */
+        private final int[] selected;
+
+        /**
+         * offset of each selected child from start, {@link TairaSchema#UNBOUNDED} when after a variable-size field
+         */
+        private final int[] offsets;
+
+        /**
+         * plan of partially selected nested TairaData, null when decoded whole
+         */
+        private final Plan[] nested;
+
+        /**
+         * selected members of a bit group child, null for other children
+         */
+        private final BitFieldNode[][] bitMembers;
+
+        Plan(TairaDataNode node, List<String> paths) {
+            this.node = node;
+            this.children = node.children().toArray(new Node[0]);
+
+            // field name -> nested paths, empty list when selected whole
+            Map<String, List<String>> selection = new LinkedHashMap<>();
+            for (String path : paths) {
+                int dot = path.indexOf('.');
+                String name = dot < 0 ? path : path.substring(0, dot);
+                List<String> subPaths = selection.get(name);
+                if (dot < 0) {
+                    selection.put(name, new ArrayList<String>());
+                } else if (subPaths == null || !subPaths.isEmpty()) {
+                    if (subPaths == null) {
+                        subPaths = new ArrayList<>();
+                        selection.put(name, subPaths);
+                    }
+                    subPaths.add(path.substring(dot + 1));
+                }
+            }
+
+            List<Integer> indices = new ArrayList<>();
+            List<Integer> offsetList = new ArrayList<>();
+            List<Plan> plans = new ArrayList<>();
+            List<BitFieldNode[]> memberList = new ArrayList<>();
+            int offset = 0;
+            for (int i = 0; i < children.length; i++) {
+                Node child = children[i];
+                if (child instanceof BitGroupNode) {
+                    List<BitFieldNode> members = new ArrayList<>();
+                    for (BitFieldNode member : ((BitGroupNode) child).members()) {
+                        List<String> subPaths = selection.remove(member.field.getName());
+                        if (subPaths != null && !subPaths.isEmpty()) {
+                            throw notTairaData(member, subPaths);
+                        } else if (subPaths != null) {
+                            members.add(member);
+                        }
+                    }
+                    if (!members.isEmpty()) {
+                        indices.add(i);
+                        offsetList.add(offset);
+                        plans.add(null);
+                        memberList.add(members.toArray(new BitFieldNode[0]));
+                    }
+                    offset = offset == TairaSchema.UNBOUNDED ? offset : offset + child.minSize();
+                    continue;
+                }
+                List<String> subPaths = selection.remove(child.field.getName());
+                if (subPaths != null) {
+                    indices.add(i);
+                    offsetList.add(offset);
+                    memberList.add(null);
+                    if (subPaths.isEmpty()) {
+                        plans.add(null);
+                    } else if (child instanceof TairaDataNode) {
+                        plans.add(new Plan(((TairaDataNode) child).reflective(), subPaths));
+                    } else {
+                        throw notTairaData(child, subPaths);
+                    }
+                }
+                if (offset != TairaSchema.UNBOUNDED) {
+                    offset = child.isFixedSize() ? offset + child.minSize() : TairaSchema.UNBOUNDED;
+                }
+            }
+            if (!selection.isEmpty()) {
+                throw new TairaIllegalValueException(
+                    "Fields " + selection.keySet() + " are not ParamFields of class [" + node.clazz.getName() + "]");
+            }
+
+            selected = new int[indices.size()];
+            offsets = new int[indices.size()];
+            for (int i = 0; i < selected.length; i++) {
+                selected[i] = indices.get(i);
+                offsets[i] = offsetList.get(i);
+            }
+            nested = plans.toArray(new Plan[0]);
+            bitMembers = memberList.toArray(new BitFieldNode[0][]);
+        }
+
+        private TairaIllegalValueException notTairaData(Node child, List<String> subPaths) {
+            return new TairaIllegalValueException("Field [" + child.field.getName() + "] of class ["
+                + node.clazz.getName() + "] is not TairaData, " + subPaths + " can not be selected");
+        }
+
+        Object decode(ByteBuffer buffer) {
+            int start = buffer.position();
+            Object value = node.newInstance();
+            // next child not yet passed
+            int cursor = 0;
+            for (int i = 0; i < selected.length; i++) {
+                int index = selected[i];
+                if (offsets[i] != TairaSchema.UNBOUNDED) {
+                    // jump straight to fixed offset
+                    if (start + offsets[i] > buffer.limit()) {
+                        throw new BufferUnderflowException();
+                    }
+                    buffer.position(start + offsets[i]);
+                } else {
+                    for (int j = cursor; j < index; j++) {
+                        children[j].skip(buffer);
+                    }
+                }
+                Node child = children[index];
+                if (bitMembers[i] != null) {
+                    // members read the same group bytes
+                    int groupStart = buffer.position();
+                    for (BitFieldNode member : bitMembers[i]) {
+                        buffer.position(groupStart);
+                        member.deserializeField(buffer, value);
+                    }
+                } else if (nested[i] == null) {
+                    child.deserializeField(buffer, value);
+                } else {
+                    // nested plan may stop early, move past the whole nested TairaData afterwards
+                    int childStart = buffer.position();
+                    child.accessor.set(value, nested[i].decode(buffer));
+                    buffer.position(childStart);
+                    child.skip(buffer);
+                }
+                cursor = index + 1;
+            }
+            return value;
+        }
+    }
+}
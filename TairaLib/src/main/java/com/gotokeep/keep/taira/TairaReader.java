@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaAnnotationException;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * read TairaData records written by {@link TairaWriter} from a channel
+ *
+ * channel is read in large chunks into an internal buffer and records are deserialized from it in place. not thread
+ * safe, channel should be blocking
+ */
+public class TairaReader<T extends TairaData> implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+
+    private final TairaDataNode root;
+
+    /**
+     * buffered bytes between position and limit
+     */
+    private ByteBuffer buffer;
+
+    private boolean endOfStream;
+
+    public TairaReader(Taira taira, ReadableByteChannel channel, Class<T> clazz) throws TairaAnnotationException {
+        this(taira, channel, clazz, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize initial buffer size, grows when a single record is larger
+     */
+    public TairaReader(Taira taira, ReadableByteChannel channel, Class<T> clazz, int bufferSize)
+        throws TairaAnnotationException {
+        this.channel = channel;
+        this.root = taira.getTairaNode(clazz);
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, TairaCodec.MAX_VAR_INT_SIZE)).order(taira.getOrder());
+        buffer.flip();
+    }
+
+    /**
+     * read next record
+     *
+     * @return record, null at the end of stream
+     * @throws EOFException when stream ends inside a record
+     * @throws IOException when frame length is malformed or channel error
+     */
+    @SuppressWarnings("unchecked")
+    public T read() throws IOException {
+        if (!buffer.hasRemaining() && !fill(1)) {
+            return null;
+        }
+        int size = readFrameSize();
+        if (buffer.remaining() < size && !fill(size)) {
+            throw new EOFException("Stream ends inside a record of [" + size + "] bytes");
+        }
+        int limit = buffer.limit();
+        int end = buffer.position() + size;
+        buffer.limit(end);
+        try {
+            return (T) root.deserialize(buffer);
+        } finally {
+            buffer.limit(limit);
+            buffer.position(end);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readFrameSize() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 7 * TairaCodec.MAX_VAR_INT_SIZE; shift += 7) {
+            if (!buffer.hasRemaining() && !fill(1)) {
+                throw new EOFException("Stream ends inside a record length");
+            }
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0xF8) != 0) {
+                // larger than Integer.MAX_VALUE or longer than 5 bytes
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed record length");
+    }
+
+    /**
+     * read from channel until [count] bytes are buffered
+     *
+     * @return false when stream ends first
+     */
+    private boolean fill(int count) throws IOException {
+        if (buffer.capacity() < count) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(count, buffer.capacity() * 2)).order(buffer.order());
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        try {
+            while (buffer.position() < count && !endOfStream) {
+                if (channel.read(buffer) < 0) {
+                    endOfStream = true;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= count;
+    }
+}
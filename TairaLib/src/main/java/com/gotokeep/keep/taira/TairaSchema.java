@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * static byte layout of a TairaData class, computed once from annotations
+ *
+ * fields are addressed by name, fields of nested TairaData by dotted path like "bar.longVal". offset of a field
+ * following a variable-size field is {@link #UNBOUNDED}
+ */
+public final class TairaSchema {
+
+    /**
+     * max size of a class or field without upper bound, e.g. tail String without [bytes]
+     */
+    public static final int UNBOUNDED = -1;
+
+    private final Class<? extends TairaData> type;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    /**
+     * field name to layout, in serialization order
+     */
+    private final Map<String, FieldLayout> fields;
+
+    /**
+     * resolved dotted paths, offsets relative to this class
+     */
+    private final ConcurrentMap<String, FieldLayout> paths = new ConcurrentHashMap<>();
+
+    TairaSchema(Class<? extends TairaData> type, int minSize, int maxSize, List<FieldLayout> fields) {
+        this.type = type;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        Map<String, FieldLayout> map = new LinkedHashMap<>();
+        for (FieldLayout field : fields) {
+            map.put(field.name, field);
+        }
+        this.fields = Collections.unmodifiableMap(map);
+    }
+
+    public Class<? extends TairaData> getType() {
+        return type;
+    }
+
+    /**
+     * @return encoded byte size when all variable fields are empty
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return largest possible encoded byte size, {@link #UNBOUNDED} if not bounded
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return whether every instance encodes to the same byte size
+     */
+    public boolean isFixedSize() {
+        return minSize == maxSize;
+    }
+
+    /**
+     * @return constant encoded byte size, {@link #UNBOUNDED} if not fixed size
+     */
+    public int getFixedSize() {
+        return isFixedSize() ? minSize : UNBOUNDED;
+    }
+
+    /**
+     * @return field names in serialization order
+     */
+    public List<String> getFieldNames() {
+        return new ArrayList<>(fields.keySet());
+    }
+
+    /**
+     * @param path declared field name, or dotted path into nested TairaData
+     * @return byte offset of the field from the start of encoded data, {@link #UNBOUNDED} if it follows a
+     * variable-size field
+     * @throws TairaIllegalValueException when path does not name a ParamField
+     */
+    public int getFieldOffset(String path) throws TairaIllegalValueException {
+        return resolve(path).offset;
+    }
+
+    /**
+     * @param path declared field name, or dotted path into nested TairaData
+     * @return fixed byte size of the field, {@link #UNBOUNDED} if variable
+     * @throws TairaIllegalValueException when path does not name a ParamField
+     */
+    public int getFieldSize(String path) throws TairaIllegalValueException {
+        FieldLayout field = resolve(path);
+        return field.minSize == field.maxSize ? field.minSize : UNBOUNDED;
+    }
+
+    /**
+     * resolve field name or dotted path, cached after first call
+     */
+    FieldLayout resolve(String path) {
+        FieldLayout field = paths.get(path);
+        if (field == null) {
+            field = resolveUncached(path);
+            paths.putIfAbsent(path, field);
+        }
+        return field;
+    }
+
+    private FieldLayout resolveUncached(String path) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            return getField(path);
+        }
+        FieldLayout parent = getField(path.substring(0, dot));
+        if (parent.nested == null) {
+            throw new TairaIllegalValueException(
+                "Field [" + parent.name + "] of class [" + type.getName() + "] is not TairaData, path [" + path
+                    + "] can not be resolved");
+        }
+        FieldLayout child = parent.nested.resolve(path.substring(dot + 1));
+        int offset = parent.offset == UNBOUNDED || child.offset == UNBOUNDED ? UNBOUNDED : parent.offset + child.offset;
+        return new FieldLayout(path, offset, child.minSize, child.maxSize, child.node, child.nested);
+    }
+
+    private FieldLayout getField(String fieldName) {
+        FieldLayout field = fields.get(fieldName);
+        if (field == null) {
+            throw new TairaIllegalValueException(
+                "Field [" + fieldName + "] is not a ParamField of class [" + type.getName() + "]");
+        }
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "TairaSchema{" + type.getName() + ", minSize=" + minSize + ", maxSize=" + maxSize
+            + ", fields=" + fields.values() + "}";
+    }
+
+    /**
+     * layout of a single field
+     */
+    static final class FieldLayout {
+        final String name;
+        final int offset;
+        final int minSize;
+        final int maxSize;
+
+        /**
+         * node encoding this field
+         */
+        final Node node;
+
+        /**
+         * layout of nested TairaData field, null for other fields
+         */
+        final TairaSchema nested;
+
+        FieldLayout(String name, int offset, int minSize, int maxSize, Node node, TairaSchema nested) {
+            this.name = name;
+            this.offset = offset;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.node = node;
+            this.nested = nested;
+        }
+
+        @Override
+        public String toString() {
+            String size = minSize == maxSize ? String.valueOf(minSize)
+                : minSize + ".." + (maxSize == UNBOUNDED ? "" : String.valueOf(maxSize));
+            return name + "@" + (offset == UNBOUNDED ? "?" : String.valueOf(offset)) + "[" + size + "]";
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * serializer generated at compile time by TairaCompiler
+ *
+ * Taira looks up {@code <SimpleName>_TairaSerializer} in the package of a TairaData class and prefers it over the
+ * reflective node tree, the encoded bytes are identical
+ */
+public interface TairaSerializer<T extends TairaData> {
+
+    /**
+     * generated class name suffix
+     */
+    String GENERATED_SUFFIX = "_TairaSerializer";
+
+    /**
+     * evaluate encoded byte size, value may be null
+     */
+    int evaluateSize(T value, Charset charset);
+
+    /**
+     * serialize value into buffer, value may be null
+     */
+    void serialize(ByteBuffer buffer, T value, Charset charset);
+
+    /**
+     * deserialize a new instance from buffer
+     */
+    T deserialize(ByteBuffer buffer, Charset charset);
+}
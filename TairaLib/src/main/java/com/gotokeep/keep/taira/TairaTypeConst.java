@@ -24,8 +24,10 @@ package com.gotokeep.keep.taira;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -43,9 +45,25 @@ final class TairaTypeConst {
      */
     private static final Set<Class<? extends Collection>> SUPPORTED_COLLECTION_TYPE = new HashSet<>();
 
+    /**
+     * primitive and boxed classes mapped to their processor, looked up instead of scanning all processors
+     */
+    private static final Map<Class, TairaPrimitive> PRIMITIVES = new HashMap<>();
+
     static {
         SUPPORTED_COLLECTION_TYPE.add(List.class);
         SUPPORTED_COLLECTION_TYPE.add(Set.class);
+        Class[] candidates = { boolean.class, Boolean.class, byte.class, Byte.class, char.class, Character.class,
+            short.class, Short.class, int.class, Integer.class, long.class, Long.class, float.class, Float.class,
+            double.class, Double.class };
+        for (Class clazz : candidates) {
+            for (TairaPrimitive type : TairaPrimitive.values()) {
+                if (type.canProcess(clazz)) {
+                    PRIMITIVES.put(clazz, type);
+                    break;
+                }
+            }
+        }
     }
 
     private TairaTypeConst() {}
@@ -57,12 +75,7 @@ final class TairaTypeConst {
      * @return primitive type
      */
     public static TairaPrimitive findPrimitive(Class clazz) {
-        for (TairaPrimitive type : TairaPrimitive.values()) {
-            if (type.canProcess(clazz)) {
-                return type;
-            }
-        }
-        return null;
+        return clazz == null ? null : PRIMITIVES.get(clazz);
     }
 
     /**
@@ -121,6 +134,20 @@ final class TairaTypeConst {
         return String.class.equals(field.getType());
     }
 
+    /**
+     * whether it's a primitive array other than byte[] (e.g. int[], float[])
+     *
+     * @param field field
+     * @return true if its member type is a non-byte primitive
+     */
+    public static boolean isPrimitiveArray(Field field) {
+        if (field == null || !field.getType().isArray()) {
+            return false;
+        }
+        Class memberType = field.getType().getComponentType();
+        return memberType.isPrimitive() && !byte.class.equals(memberType);
+    }
+
     /**
      * internal debug log
      *
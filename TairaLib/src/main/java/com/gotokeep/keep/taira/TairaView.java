@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * read or overwrite single fields of encoded TairaData at their schema offsets, without building the object
+ *
+ * fields are addressed like {@link TairaSchema}, by name or dotted path into nested TairaData. a view can be re-wrapped
+ * around each new frame, primitive reads and writes allocate nothing. writes follow the same [bytes] width and
+ * overflow rules as serialization, only fixed-size fields can be overwritten. wrapped buffer's position and byte
+ * order are left unchanged. not thread safe
+ */
+public final class TairaView<T extends TairaData> {
+
+    private final TairaSchema schema;
+
+    private final ByteOrder order;
+
+    private ByteBuffer buffer;
+
+    /**
+     * start index of encoded data in buffer
+     */
+    private int base;
+
+    /**
+     * wrapped buffer state while accessing a field
+     */
+    private ByteOrder savedOrder;
+
+    private int savedPosition;
+
+    private int savedLimit;
+
+    TairaView(TairaSchema schema, ByteOrder order) {
+        this.schema = schema;
+        this.order = order;
+    }
+
+    public TairaSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * view encoded data starting at buffer position and ending at its limit
+     */
+    public TairaView<T> wrap(ByteBuffer data) {
+        buffer = data;
+        base = data.position();
+        return this;
+    }
+
+    /**
+     * view encoded data in array
+     */
+    public TairaView<T> wrap(byte[] data) {
+        return wrap(ByteBuffer.wrap(data));
+    }
+
+    public boolean getBoolean(String path) throws TairaIllegalValueException {
+        return readBits(path, TairaPrimitive.BOOLEAN) != 0;
+    }
+
+    public byte getByte(String path) throws TairaIllegalValueException {
+        return (byte) readBits(path, TairaPrimitive.BYTE);
+    }
+
+    public char getChar(String path) throws TairaIllegalValueException {
+        return (char) readBits(path, TairaPrimitive.CHAR);
+    }
+
+    public short getShort(String path) throws TairaIllegalValueException {
+        return (short) readBits(path, TairaPrimitive.SHORT);
+    }
+
+    public int getInt(String path) throws TairaIllegalValueException {
+        return (int) readBits(path, TairaPrimitive.INT);
+    }
+
+    public long getLong(String path) throws TairaIllegalValueException {
+        return readBits(path, TairaPrimitive.LONG);
+    }
+
+    public float getFloat(String path) throws TairaIllegalValueException {
+        return Float.intBitsToFloat((int) readBits(path, TairaPrimitive.FLOAT));
+    }
+
+    public double getDouble(String path) throws TairaIllegalValueException {
+        return Double.longBitsToDouble(readBits(path, TairaPrimitive.DOUBLE));
+    }
+
+    public String getString(String path) throws TairaIllegalValueException {
+        return (String) read(path, String.class);
+    }
+
+    public byte[] getBytes(String path) throws TairaIllegalValueException {
+        return (byte[]) read(path, byte[].class);
+    }
+
+    /**
+     * decode a single field of any type, nested TairaData and collections are built for this field only
+     */
+    public Object get(String path) throws TairaIllegalValueException {
+        return read(path, null);
+    }
+
+    public void setBoolean(String path, boolean value) throws TairaIllegalValueException {
+        Node node = enter(primitive(path, TairaPrimitive.BOOLEAN));
+        try {
+            if (node instanceof BitFieldNode) {
+                ((BitFieldNode) node).putLong(buffer, value ? 1 : 0);
+            } else {
+                TairaPrimitive.putBoolean(buffer, value);
+            }
+        } finally {
+            leave();
+        }
+    }
+
+    public void setByte(String path, byte value) throws TairaIllegalValueException {
+        Node node = enter(primitive(path, TairaPrimitive.BYTE));
+        try {
+            if (node instanceof BitFieldNode) {
+                ((BitFieldNode) node).putLong(buffer, value);
+            } else {
+                buffer.put(value);
+            }
+        } finally {
+            leave();
+        }
+    }
+
+    public void setChar(String path, char value) throws TairaIllegalValueException {
+        putLong(path, TairaPrimitive.CHAR, value);
+    }
+
+    public void setShort(String path, short value) throws TairaIllegalValueException {
+        putLong(path, TairaPrimitive.SHORT, value);
+    }
+
+    public void setInt(String path, int value) throws TairaIllegalValueException {
+        putLong(path, TairaPrimitive.INT, value);
+    }
+
+    public void setLong(String path, long value) throws TairaIllegalValueException {
+        putLong(path, TairaPrimitive.LONG, value);
+    }
+
+    public void setFloat(String path, float value) throws TairaIllegalValueException {
+        PrimitiveNode node = enter(primitive(path, TairaPrimitive.FLOAT));
+        try {
+            node.putFloat(buffer, value);
+        } finally {
+            leave();
+        }
+    }
+
+    public void setDouble(String path, double value) throws TairaIllegalValueException {
+        PrimitiveNode node = enter(primitive(path, TairaPrimitive.DOUBLE));
+        try {
+            node.putDouble(buffer, value);
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * overwrite a String field with [bytes], remains are zero-filled
+     */
+    public void setString(String path, String value) throws TairaIllegalValueException {
+        set(path, String.class, value);
+    }
+
+    /**
+     * overwrite a byte[] field with [bytes], remains are zero-filled
+     */
+    public void setBytes(String path, byte[] value) throws TairaIllegalValueException {
+        set(path, byte[].class, value);
+    }
+
+    /**
+     * overwrite a fixed-size field of any type, e.g. nested TairaData or collection with [length]
+     */
+    public void set(String path, Object value) throws TairaIllegalValueException {
+        set(path, null, value);
+    }
+
+    private long readBits(String path, TairaPrimitive type) {
+        Node node = enter(primitive(path, type));
+        try {
+            if (node instanceof BitFieldNode) {
+                return ((BitFieldNode) node).readBits(buffer);
+            }
+            if (node instanceof VarIntNode) {
+                return ((VarIntNode) node).readBits(buffer);
+            }
+            return ((PrimitiveNode) node).readBits(buffer);
+        } finally {
+            leave();
+        }
+    }
+
+    private void putLong(String path, TairaPrimitive type, long value) {
+        TairaSchema.FieldLayout field = primitive(path, type);
+        if (field.minSize != field.maxSize) {
+            throw new TairaIllegalValueException(
+                "Field [" + path + "] is variable size, it can not be overwritten in place");
+        }
+        Node node = enter(field);
+        try {
+            if (node instanceof BitFieldNode) {
+                ((BitFieldNode) node).putLong(buffer, value);
+            } else {
+                ((PrimitiveNode) node).putLong(buffer, value);
+            }
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * @param type expected field type, any if null
+     */
+    private Object read(String path, Class type) {
+        Node node = enter(field(path, type));
+        try {
+            return node.deserialize(buffer);
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * @param type expected field type, any if null
+     */
+    private void set(String path, Class type, Object value) {
+        TairaSchema.FieldLayout field = field(path, type);
+        if (field.minSize != field.maxSize) {
+            throw new TairaIllegalValueException(
+                "Field [" + path + "] is variable size, it can not be overwritten in place");
+        }
+        if (value != null && !isAssignable(field.node, value)) {
+            throw typeMismatch(field, value.getClass().getSimpleName());
+        }
+        ByteBuffer encoded = null;
+        if (field.node instanceof ByteArrayNode) {
+            ((ByteArrayNode) field.node).checkFits(value);
+        } else if (!(field.node instanceof PrimitiveNode) && !(field.node instanceof BitFieldNode)) {
+            // nested values may fail halfway, encode aside first so the frame stays intact
+            encoded = ByteBuffer.allocate(field.minSize).order(order);
+            field.node.serialize(encoded, value);
+            encoded.flip();
+        }
+        Node node = enter(field);
+        try {
+            if (encoded != null) {
+                buffer.put(encoded);
+            } else {
+                node.serialize(buffer, value);
+            }
+        } finally {
+            leave();
+        }
+    }
+
+    private TairaSchema.FieldLayout primitive(String path, TairaPrimitive type) {
+        TairaSchema.FieldLayout field = locate(path);
+        TairaPrimitive fieldType = null;
+        if (field.node instanceof PrimitiveNode) {
+            fieldType = ((PrimitiveNode) field.node).type();
+        } else if (field.node instanceof BitFieldNode) {
+            fieldType = ((BitFieldNode) field.node).type();
+        } else if (field.node instanceof VarIntNode) {
+            fieldType = ((VarIntNode) field.node).type();
+        }
+        if (fieldType != type) {
+            throw typeMismatch(field, type.name().toLowerCase());
+        }
+        return field;
+    }
+
+    private TairaSchema.FieldLayout field(String path, Class type) {
+        TairaSchema.FieldLayout field = locate(path);
+        if (type != null && !type.equals(field.node.clazz)) {
+            throw typeMismatch(field, type.getSimpleName());
+        }
+        return field;
+    }
+
+    /**
+     * whether [value] can be encoded by field node, primitive fields take only their own boxed type
+     */
+    private static boolean isAssignable(Node node, Object value) {
+        if (node.clazz.isPrimitive()) {
+            return TairaTypeConst.findPrimitive(value.getClass()) == TairaTypeConst.findPrimitive(node.clazz);
+        }
+        return node.clazz.isInstance(value);
+    }
+
+    /**
+     * move buffer to field, limited to its end when fixed size, {@link #leave()} restores buffer
+     */
+    @SuppressWarnings("unchecked")
+    private <N extends Node> N enter(TairaSchema.FieldLayout field) {
+        savedOrder = buffer.order();
+        savedPosition = buffer.position();
+        savedLimit = buffer.limit();
+        buffer.order(order);
+        buffer.position(base + field.offset);
+        if (field.minSize == field.maxSize) {
+            buffer.limit(base + field.offset + field.minSize);
+        }
+        return (N) field.node;
+    }
+
+    private void leave() {
+        buffer.limit(savedLimit);
+        buffer.position(savedPosition);
+        buffer.order(savedOrder);
+    }
+
+    private TairaSchema.FieldLayout locate(String path) {
+        if (buffer == null) {
+            throw new IllegalStateException("View is not wrapping any data");
+        }
+        TairaSchema.FieldLayout field = schema.resolve(path);
+        if (field.offset == TairaSchema.UNBOUNDED) {
+            throw new TairaIllegalValueException(
+                "Field [" + path + "] follows a variable-size field, its offset is unknown without decoding");
+        }
+        if (base + field.offset + field.minSize > buffer.limit()) {
+            throw new TairaIllegalValueException("Data is too short for field [" + path + "]");
+        }
+        return field;
+    }
+
+    private static TairaIllegalValueException typeMismatch(TairaSchema.FieldLayout field, String expected) {
+        return new TairaIllegalValueException(
+            "Field [" + field.name + "] of type [" + field.node.clazz.getName() + "] is not " + expected);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.exception.TairaAnnotationException;
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * write TairaData records to a channel, each record is prefixed with its byte size as an unsigned varint
+ *
+ * records are serialized straight into an internal buffer, which is written to the channel only when full or on
+ * {@link #flush()}, so many small records share one channel write. not thread safe, channel should be blocking
+ */
+public class TairaWriter implements Closeable, Flushable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Taira taira;
+
+    private final WritableByteChannel channel;
+
+    private ByteBuffer buffer;
+
+    public TairaWriter(Taira taira, WritableByteChannel channel) {
+        this(taira, channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize initial buffer size, grows when a single record is larger
+     */
+    public TairaWriter(Taira taira, WritableByteChannel channel, int bufferSize) {
+        this.taira = taira;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, TairaCodec.MAX_VAR_INT_SIZE)).order(taira.getOrder());
+    }
+
+    /**
+     * append a record, may write buffered records to channel
+     *
+     * @throws TairaAnnotationException when annotation error
+     * @throws TairaIllegalValueException when value error or record is null, nothing of the record is written
+     */
+    public <T extends TairaData> void write(T record)
+        throws IOException, TairaAnnotationException, TairaIllegalValueException {
+        if (record == null) {
+            throw new TairaIllegalValueException("Record should not be null");
+        }
+        TairaDataNode root = taira.getTairaNode(record.getClass());
+        int size = root.evaluateSize(record);
+        int frameSize = TairaCodec.sizeOfUnsignedVarInt(size) + size;
+        if (buffer.remaining() < frameSize) {
+            flush();
+            if (buffer.capacity() < frameSize) {
+                buffer = ByteBuffer.allocate(Math.max(frameSize, buffer.capacity() * 2)).order(buffer.order());
+            }
+        }
+        int start = buffer.position();
+        try {
+            TairaCodec.writeUnsignedVarInt(buffer, size);
+            root.serialize(buffer, record);
+        } catch (RuntimeException e) {
+            // drop partial frame, keep stream consistent
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * write all buffered records to channel
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    /**
+     * flush buffered records and close channel
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
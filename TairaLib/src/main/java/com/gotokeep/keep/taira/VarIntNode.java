@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira;
+
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * node for processing varint encoded char/short/int/long, see {@link ParamField.Encoding}
+ *
+ * primitive typed fields are read/written through typed accessors, no boxing on this path
+ */
+class VarIntNode extends Node {
+
+    private TairaPrimitive type;
+
+    /**
+     * ZigZag mapped before varint
+     */
+    private boolean zigZag;
+
+    /**
+     * collection member node without field
+     */
+    VarIntNode(Class clazz, TairaPrimitive type, ParamField.Encoding encoding) {
+        super(clazz);
+        this.type = type;
+        this.zigZag = encoding == ParamField.Encoding.ZIGZAG;
+    }
+
+    /**
+     * field node
+     */
+    VarIntNode(Field field, TairaPrimitive type, ParamField.Encoding encoding) {
+        super(field);
+        this.type = type;
+        this.zigZag = encoding == ParamField.Encoding.ZIGZAG;
+    }
+
+    @Override
+    public int evaluateSize(Object value) {
+        return sizeOf(toLong(value));
+    }
+
+    @Override
+    public void serialize(ByteBuffer buffer, Object value) {
+        putLong(buffer, toLong(value));
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer buffer) {
+        switch (type) {
+            case CHAR:
+                return TairaCodec.readVarChar(buffer, zigZag);
+            case SHORT:
+                return TairaCodec.readVarShort(buffer, zigZag);
+            case INT:
+                return TairaCodec.readVarInt(buffer, zigZag);
+            default:
+                return TairaCodec.readVarLong(buffer, zigZag);
+        }
+    }
+
+    @Override
+    int minSize() {
+        return 1;
+    }
+
+    @Override
+    int maxSize() {
+        return type == TairaPrimitive.LONG ? TairaCodec.MAX_VAR_LONG_SIZE
+            : type == TairaPrimitive.INT ? TairaCodec.MAX_VAR_INT_SIZE : 3;
+    }
+
+    @Override
+    void skip(ByteBuffer buffer) {
+        readBits(buffer);
+    }
+
+    @Override
+    int evaluateFieldSize(Object owner) {
+        if (owner == null || !clazz.isPrimitive()) {
+            return super.evaluateFieldSize(owner);
+        }
+        return sizeOf(getLong(owner));
+    }
+
+    @Override
+    void serializeField(ByteBuffer buffer, Object owner) {
+        if (!clazz.isPrimitive()) {
+            super.serializeField(buffer, owner);
+            return;
+        }
+        putLong(buffer, getLong(owner));
+    }
+
+    @Override
+    void deserializeField(ByteBuffer buffer, Object owner) {
+        if (!clazz.isPrimitive()) {
+            super.deserializeField(buffer, owner);
+            return;
+        }
+        switch (type) {
+            case CHAR:
+                accessor.setChar(owner, TairaCodec.readVarChar(buffer, zigZag));
+                break;
+            case SHORT:
+                accessor.setShort(owner, TairaCodec.readVarShort(buffer, zigZag));
+                break;
+            case INT:
+                accessor.setInt(owner, TairaCodec.readVarInt(buffer, zigZag));
+                break;
+            default:
+                accessor.setLong(owner, TairaCodec.readVarLong(buffer, zigZag));
+                break;
+        }
+    }
+
+    TairaPrimitive type() {
+        return type;
+    }
+
+    /**
+     * read value at buffer position
+     */
+    long readBits(ByteBuffer buffer) {
+        switch (type) {
+            case CHAR:
+                return TairaCodec.readVarChar(buffer, zigZag);
+            case SHORT:
+                return TairaCodec.readVarShort(buffer, zigZag);
+            case INT:
+                return TairaCodec.readVarInt(buffer, zigZag);
+            default:
+                return TairaCodec.readVarLong(buffer, zigZag);
+        }
+    }
+
+    private void putLong(ByteBuffer buffer, long value) {
+        switch (type) {
+            case CHAR:
+                TairaCodec.writeVarChar(buffer, (char) value, zigZag);
+                break;
+            case SHORT:
+                TairaCodec.writeVarShort(buffer, (short) value, zigZag);
+                break;
+            case INT:
+                TairaCodec.writeVarInt(buffer, (int) value, zigZag);
+                break;
+            default:
+                TairaCodec.writeVarLong(buffer, value, zigZag);
+                break;
+        }
+    }
+
+    private int sizeOf(long value) {
+        switch (type) {
+            case CHAR:
+                return TairaCodec.sizeOfVarChar((char) value, zigZag);
+            case SHORT:
+                return TairaCodec.sizeOfVarShort((short) value, zigZag);
+            case INT:
+                return TairaCodec.sizeOfVarInt((int) value, zigZag);
+            default:
+                return TairaCodec.sizeOfVarLong(value, zigZag);
+        }
+    }
+
+    /**
+     * value of primitive typed field
+     */
+    private long getLong(Object owner) {
+        switch (type) {
+            case CHAR:
+                return accessor.getChar(owner);
+            case SHORT:
+                return accessor.getShort(owner);
+            case INT:
+                return accessor.getInt(owner);
+            default:
+                return accessor.getLong(owner);
+        }
+    }
+
+    private static long toLong(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        return ((Number) value).longValue();
+    }
+}
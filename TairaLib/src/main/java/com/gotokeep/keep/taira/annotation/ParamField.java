@@ -41,7 +41,8 @@ public @interface ParamField {
     int order() default 0;
 
     /**
-     * for primitive type: define lower byte size when serialize/deserialize
+     * for primitive type: define lower byte size when serialize/deserialize, narrowed short/int/long values must fit
+     * in signed lower bytes and are sign-extended back on deserialize
      * for String and byte[]: must specifiy this value
      */
     int bytes() default 0;
@@ -52,4 +53,46 @@ public @interface ParamField {
      * tail field can ignore this
      */
     int length() default 0;
+
+    /**
+     * for boolean and integer types: pack unsigned value into [bits] bits shared with adjacent [bits] fields
+     * for boolean[], Boolean[] and List&lt;Boolean&gt;: encode as bitset, must be 1 with [length] specified
+     *
+     * consecutive [bits] fields form a group, filled from the lowest bit of its first byte
+     */
+    int bits() default 0;
+
+    /**
+     * for char/short/int/long and their collections/arrays: integer encoding, {@link Encoding#FIXED} by default
+     */
+    Encoding encoding() default Encoding.FIXED;
+
+    /**
+     * for String, byte[] and collection/array: write byte size or member count as [prefix]-byte unsigned length
+     * prefix (1 to 4) before the content, 0 to disable
+     *
+     * prefixed field takes only its actual size and can be placed anywhere, [bytes]/[length] become optional limits
+     */
+    int prefix() default 0;
+
+    /**
+     * integer encoding
+     */
+    enum Encoding {
+
+        /**
+         * fixed byte size, natural or [bytes]
+         */
+        FIXED,
+
+        /**
+         * unsigned LEB128 varint, 7 bits per byte, small non-negative values take fewer bytes
+         */
+        VARINT,
+
+        /**
+         * ZigZag mapped varint, small negative values take fewer bytes too
+         */
+        ZIGZAG
+    }
 }
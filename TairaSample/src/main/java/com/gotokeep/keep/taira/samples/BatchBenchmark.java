@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compare per-record cost of batch encode/decode against a loop of single-object calls
+ *
+ * the loop writes every record into one output buffer too, so the difference is the per-call lookup, sizing and
+ * allocation that the batch API does once. Parallel batch splits the same records over a ForkJoinPool of all cores.
+ * Variable-size Foo records with different tail Strings are checked to be framed byte-identically to TairaWriter, then
+ * timed the same way. Best of several trials is reported.
+ */
+public class BatchBenchmark {
+
+    private static final int RECORDS = 10000;
+
+    private static final int ROUNDS = 100;
+
+    /**
+     * best of all trials is reported, early trials warm up JIT
+     */
+    private static final int TRIALS = 15;
+
+    public static void main(String[] args) throws IOException {
+        List<SensorSample> samples = new ArrayList<SensorSample>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            samples.add(new SensorSample(1500000000000L + i, i * 0.5f, -i * 0.25f, 9.8f, (byte) (i % 4)));
+        }
+        Taira taira = Taira.DEFAULT;
+        byte[] batchBytes = taira.toBytes(samples);
+        ForkJoinPool pool = new ForkJoinPool();
+        if (!Arrays.equals(batchBytes, taira.toBytes(samples, pool))) {
+            throw new IllegalStateException("Parallel batch differs");
+        }
+
+        long[] best = new long[6];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            best[0] = Math.min(best[0], singleEncode(taira, samples));
+            best[1] = Math.min(best[1], batchEncode(taira, samples, null));
+            best[2] = Math.min(best[2], batchEncode(taira, samples, pool));
+            best[3] = Math.min(best[3], singleDecode(taira, batchBytes));
+            best[4] = Math.min(best[4], batchDecode(taira, batchBytes, null));
+            best[5] = Math.min(best[5], batchDecode(taira, batchBytes, pool));
+        }
+        pool.shutdown();
+        report("encode single  ", best[0]);
+        report("encode batch   ", best[1]);
+        report("encode parallel", best[2]);
+        report("decode single  ", best[3]);
+        report("decode batch   ", best[4]);
+        report("decode parallel", best[5]);
+
+        variableSize(taira);
+    }
+
+    private static void variableSize(Taira taira) throws IOException {
+        List<Foo> foos = new ArrayList<Foo>(RECORDS);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        TairaWriter writer = new TairaWriter(taira, Channels.newChannel(stream));
+        for (int i = 0; i < RECORDS; i++) {
+            Foo foo = Main.createFoo();
+            foo.setIntField(i % 30000);
+            foo.setRemainsStringField(foo.getRemainsStringField().substring(i % 20));
+            foos.add(foo);
+            writer.write(foo);
+        }
+        writer.close();
+        byte[] batchBytes = taira.toBytes(foos);
+        ForkJoinPool pool = new ForkJoinPool();
+        if (!Arrays.equals(batchBytes, stream.toByteArray())) {
+            throw new IllegalStateException("Variable-size batch differs from TairaWriter frames");
+        }
+        if (!Arrays.equals(batchBytes, taira.toBytes(foos, pool))) {
+            throw new IllegalStateException("Parallel variable-size batch differs");
+        }
+        checkFoos(taira.fromBytes(batchBytes, Foo.class, RECORDS), foos);
+        checkFoos(taira.fromBytes(batchBytes, Foo.class, RECORDS, pool), foos);
+
+        long encode = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                taira.toBytes(foos);
+            }
+            encode = Math.min(encode, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                taira.toBytes(foos, pool);
+            }
+            parallel = Math.min(parallel, System.nanoTime() - start);
+        }
+        pool.shutdown();
+        report("encode variable batch   ", encode);
+        report("encode variable parallel", parallel);
+    }
+
+    private static void checkFoos(List<Foo> result, List<Foo> foos) {
+        for (int i = 0; i < RECORDS; i++) {
+            if (result.get(i).getIntField() != foos.get(i).getIntField()
+                || !result.get(i).getRemainsStringField().equals(foos.get(i).getRemainsStringField())) {
+                throw new IllegalStateException("Corrupted variable-size batch at [" + i + "]");
+            }
+        }
+    }
+
+    private static long singleEncode(Taira taira, List<SensorSample> samples) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            ByteBuffer out = ByteBuffer.allocate(RECORDS * 21);
+            for (SensorSample sample : samples) {
+                out.put(taira.toBytes(sample));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @param pool null for sequential batch
+     */
+    private static long batchEncode(Taira taira, List<SensorSample> samples, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            if (pool == null) {
+                taira.toBytes(samples);
+            } else {
+                taira.toBytes(samples, pool);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long singleDecode(Taira taira, byte[] data) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            List<SensorSample> result = new ArrayList<SensorSample>(RECORDS);
+            byte[] record = new byte[21];
+            for (int i = 0; i < RECORDS; i++) {
+                in.get(record);
+                result.add(taira.fromBytes(record, SensorSample.class));
+            }
+            check(result);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @param pool null for sequential batch
+     */
+    private static long batchDecode(Taira taira, byte[] data, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            if (pool == null) {
+                check(taira.fromBytes(data, SensorSample.class, RECORDS));
+            } else {
+                check(taira.fromBytes(data, SensorSample.class, RECORDS, pool));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void check(List<SensorSample> result) {
+        if (result.size() != RECORDS || result.get(RECORDS - 1).getTimestamp() != 1500000000000L + RECORDS - 1) {
+            throw new IllegalStateException("Corrupted batch");
+        }
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.println(String.format("%s: %6.1f ns/record", name, (double) nanos / ROUNDS / RECORDS));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Measure time to first message of a fresh JVM with lazy, registered, preloaded and warmed-up classes
+ *
+ * every run starts a new JVM so class loading, annotation checks and node building are really cold. Registration
+ * time is reported apart from first message time, median of several runs is reported.
+ */
+public class ColdStartBenchmark {
+
+    private static final String[] MODES = { "lazy", "register", "preload", "warmup" };
+
+    private static final int RUNS = 5;
+
+    private static final int WARM_UP_ITERATIONS = 10000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0) {
+            runChild(args[0]);
+            return;
+        }
+        for (String mode : MODES) {
+            long[] prepare = new long[RUNS];
+            long[] first = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long[] result = spawn(mode);
+                prepare[run] = result[0];
+                first[run] = result[1];
+            }
+            System.out.println(String.format("%-8s: prepare %8.1f us, first message %8.1f us", mode,
+                median(prepare) / 1000.0, median(first) / 1000.0));
+        }
+    }
+
+    /**
+     * prepare Taira as [mode] says, then time one encode/decode round trip, print both in nanoseconds
+     */
+    private static void runChild(String mode) {
+        // the record exists before serialization starts, its classes are loaded in every mode
+        Foo foo = Main.createFoo();
+        long start = System.nanoTime();
+        Taira taira = new Taira(ByteOrder.BIG_ENDIAN);
+        if ("register".equals(mode)) {
+            taira.register(Foo.class);
+        } else if ("preload".equals(mode)) {
+            taira.preload(Foo.class.getPackage().getName());
+        } else if ("warmup".equals(mode)) {
+            taira.warmUp(WARM_UP_ITERATIONS, Foo.class);
+        }
+        long prepared = System.nanoTime();
+        Foo result = taira.fromBytes(taira.toBytes(foo), Foo.class);
+        long done = System.nanoTime();
+        if (result.getIntField() != foo.getIntField()) {
+            throw new IllegalStateException("Corrupted round trip");
+        }
+        System.out.println((prepared - start) + " " + (done - prepared));
+    }
+
+    private static long[] spawn(String mode) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            ColdStartBenchmark.class.getName(), mode).redirectErrorStream(true).start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "utf-8"));
+        String line;
+        String last = null;
+        while ((line = reader.readLine()) != null) {
+            last = line;
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("Run of [" + mode + "] failed: " + last);
+        }
+        String[] parts = last.trim().split(" ");
+        return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaBufferAllocator;
+import com.gotokeep.keep.taira.TairaMetrics;
+
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stress one shared Taira instance from 1 to N threads
+ *
+ * every round starts from a cold instance so the first calls race on the schema cache, each thread then verifies its
+ * own round trips against the single-threaded result. Every round runs again with {@link TairaMetrics} enabled to show
+ * the cost of leaving metrics on.
+ *
+ * fails when throughput scales below {@link #MIN_SCALING} of the thread count, or when a thread misses the node cache
+ * more than once: racing first calls may each build a node, but once published every later lookup must hit it
+ */
+public class ConcurrencyBenchmark {
+
+    private static final int ITERATIONS_PER_THREAD = 200000;
+
+    /**
+     * lowest accepted speedup per thread, threads never exceed available processors
+     */
+    private static final double MIN_SCALING = 0.5;
+
+    public static void main(String[] args) throws InterruptedException {
+        Foo foo = Main.createFoo();
+        byte[] expected = new Taira(ByteOrder.BIG_ENDIAN).toBytes(foo);
+
+        // warm up so the single-threaded baseline is not measured cold
+        run(new Taira(ByteOrder.BIG_ENDIAN), foo, expected, 1);
+
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads)
+            : threads + 1) {
+            double opsPerSecond = run(new Taira(ByteOrder.BIG_ENDIAN), foo, expected, threads);
+            if (baseline == 0) {
+                baseline = opsPerSecond;
+            }
+            TairaMetrics metrics = new TairaMetrics();
+            double metricsOpsPerSecond = run(new Taira(Charset.forName("utf-8"), ByteOrder.BIG_ENDIAN,
+                TairaBufferAllocator.heap(), metrics), foo, expected, threads);
+            TairaMetrics.Stats stats = metrics.getStats(Foo.class);
+            long count = (long) threads * ITERATIONS_PER_THREAD;
+            if (stats.getSerialize().getCount() != count || stats.getDeserialize().getCount() != count) {
+                throw new IllegalStateException("Metrics missed calls with " + threads + " threads");
+            }
+            long misses = metrics.getNodeCacheMisses();
+            System.out.println(String.format("threads: %2d, round trips/s: %12.0f, speedup: %5.2fx, "
+                    + "with metrics: %12.0f, p99 serialize: %6d ns, node misses: %d", threads, opsPerSecond,
+                opsPerSecond / baseline, metricsOpsPerSecond, stats.getSerialize().getLatencyPercentile(99), misses));
+            if (misses < 1 || misses > threads) {
+                throw new IllegalStateException(misses + " node cache misses with " + threads + " threads");
+            }
+            if (opsPerSecond / baseline < threads * MIN_SCALING) {
+                throw new IllegalStateException(String.format("Speedup %.2fx with %d threads is below %.2fx",
+                    opsPerSecond / baseline, threads, threads * MIN_SCALING));
+            }
+        }
+    }
+
+    private static double run(final Taira taira, final Foo foo, final byte[] expected, int threads)
+        throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ready.countDown();
+                        start.await();
+                        for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+                            byte[] bytes = taira.toBytes(foo);
+                            Foo result = taira.fromBytes(bytes, Foo.class);
+                            if (!Arrays.equals(expected, bytes) || result.getIntField() != foo.getIntField()) {
+                                throw new IllegalStateException("Corrupted round trip on iteration " + i);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "taira-stress-" + t).start();
+        }
+
+        ready.await();
+        long startTime = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - startTime;
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Stress run with " + threads + " threads failed", failure.get());
+        }
+        return (double) threads * ITERATIONS_PER_THREAD * 1000000000L / elapsed;
+    }
+}
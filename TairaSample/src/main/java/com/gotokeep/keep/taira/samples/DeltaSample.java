@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Keep-Tech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaDeltaDecoder;
+import com.gotokeep.keep.taira.TairaDeltaEncoder;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Round trip a stream of Laps through delta encoding in both byte orders
+ *
+ * every frame changes a random subset of bit-packed, varint, length-prefixed and tail fields, decoded Laps are
+ * checked against the encoded ones and their full encoding.
+ */
+public class DeltaSample {
+
+    private static final int FRAMES = 2000;
+
+    public static void main(String[] args) {
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            Taira taira = new Taira(order);
+            TairaDeltaEncoder<Lap> encoder = new TairaDeltaEncoder<Lap>(taira, Lap.class);
+            TairaDeltaDecoder<Lap> decoder = new TairaDeltaDecoder<Lap>(taira, Lap.class);
+            Random random = new Random(42);
+            Lap lap = randomLap(random, null);
+            long frameBytes = 0;
+            long recordBytes = 0;
+            for (int i = 0; i < FRAMES; i++) {
+                lap = randomLap(random, lap);
+                byte[] frame = encoder.encode(lap);
+                Lap decoded = decoder.decode(frame);
+                byte[] expected = taira.toBytes(lap);
+                if (!Arrays.equals(expected, taira.toBytes(decoded)) || !lap.getNote().equals(decoded.getNote())) {
+                    throw new IllegalStateException("Frame [" + i + "] decoded wrong, " + order);
+                }
+                frameBytes += frame.length;
+                recordBytes += expected.length;
+            }
+            System.out.println(String.format("%-13s %d frames: %d bytes as delta frames, %d bytes as records", order,
+                FRAMES, frameBytes, recordBytes));
+        }
+    }
+
+    /**
+     * @param previous lap to change a few fields of, null for a new one
+     */
+    private static Lap randomLap(Random random, Lap previous) {
+        boolean fresh = previous == null;
+        boolean paused = fresh || random.nextInt(4) == 0 ? random.nextBoolean() : previous.isPaused();
+        int pace = fresh || random.nextInt(4) == 0 ? random.nextInt(128) : previous.getPace();
+        int distance = fresh || random.nextInt(2) == 0 ? random.nextInt(1 << 20) : previous.getDistance();
+        long elevation = fresh || random.nextInt(4) == 0 ? random.nextInt(2000) - 1000 : previous.getElevation();
+        String name = fresh || random.nextInt(8) == 0 ? "Lap " + random.nextInt(1000) : previous.getName();
+        byte[] track = previous == null ? null : previous.getTrack();
+        if (fresh || random.nextInt(4) == 0) {
+            track = new byte[random.nextInt(600)];
+            random.nextBytes(track);
+        }
+        List<Short> heartRates = fresh || random.nextInt(3) == 0
+            ? Arrays.asList((short) (100 + random.nextInt(80)), (short) (100 + random.nextInt(80)))
+            : previous.getHeartRates();
+        String note = fresh || random.nextInt(8) == 0 ? "note " + random.nextInt() : previous.getNote();
+        return new Lap(paused, pace, distance, elevation, name, track, heartRates, note);
+    }
+}
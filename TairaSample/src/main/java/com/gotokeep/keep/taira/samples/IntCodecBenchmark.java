@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.TairaCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Measure per-value cost of the integer codec for every byte width in both byte orders
+ *
+ * before timing, every width/order is checked against a byte-by-byte reference layout, and narrowed values are
+ * checked to come back sign-extended. Best of several trials is reported.
+ */
+public class IntCodecBenchmark {
+
+    private static final int VALUES = 4096;
+
+    private static final int ROUNDS = 1000;
+
+    /**
+     * best of all trials is reported, early trials warm up JIT
+     */
+    private static final int TRIALS = 10;
+
+    private static final ByteOrder[] ORDERS = { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN };
+
+    public static void main(String[] args) {
+        for (ByteOrder order : ORDERS) {
+            for (int bytes = 1; bytes <= 8; bytes++) {
+                long[] values = createValues(bytes);
+                ByteBuffer buffer = ByteBuffer.allocate(VALUES * bytes).order(order);
+                check(buffer, values, bytes);
+                long encode = Long.MAX_VALUE;
+                long decode = Long.MAX_VALUE;
+                for (int trial = 0; trial < TRIALS; trial++) {
+                    encode = Math.min(encode, encode(buffer, values, bytes));
+                    decode = Math.min(decode, decode(buffer, bytes));
+                }
+                report(order, bytes, encode, decode);
+            }
+        }
+    }
+
+    /**
+     * values spread over the signed range of [bytes], including both ends
+     */
+    private static long[] createValues(int bytes) {
+        long max = bytes == 8 ? Long.MAX_VALUE : (1L << (8 * bytes - 1)) - 1;
+        long min = -max - 1;
+        long[] values = new long[VALUES];
+        values[0] = min;
+        values[1] = max;
+        values[2] = -1;
+        values[3] = 0;
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 4; i < VALUES; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            values[i] = bytes == 8 ? seed : seed >> (64 - 8 * bytes);
+        }
+        return values;
+    }
+
+    private static void check(ByteBuffer buffer, long[] values, int bytes) {
+        buffer.clear();
+        for (long value : values) {
+            TairaCodec.writeLong(buffer, value, bytes);
+        }
+        boolean big = buffer.order() == ByteOrder.BIG_ENDIAN;
+        for (int i = 0; i < VALUES; i++) {
+            for (int j = 0; j < bytes; j++) {
+                int shift = 8 * (big ? bytes - 1 - j : j);
+                if (buffer.get(i * bytes + j) != (byte) (values[i] >>> shift)) {
+                    throw new IllegalStateException("Layout differs, [" + bytes + "] bytes " + buffer.order());
+                }
+            }
+        }
+        buffer.flip();
+        for (long value : values) {
+            long decoded = TairaCodec.readLong(buffer, bytes);
+            if (decoded != value) {
+                throw new IllegalStateException("Value [" + value + "] decoded as [" + decoded + "], [" + bytes
+                    + "] bytes " + buffer.order());
+            }
+        }
+    }
+
+    private static long encode(ByteBuffer buffer, long[] values, int bytes) {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            buffer.clear();
+            for (long value : values) {
+                TairaCodec.writeLong(buffer, value, bytes);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long decode(ByteBuffer buffer, int bytes) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            buffer.clear();
+            for (int i = 0; i < VALUES; i++) {
+                sum += TairaCodec.readLong(buffer, bytes);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (sum == 42) {
+            // keep the decoded values alive
+            System.out.println();
+        }
+        return nanos;
+    }
+
+    private static void report(ByteOrder order, int bytes, long encode, long decode) {
+        double count = (double) ROUNDS * VALUES;
+        System.out.println(String.format("%-13s %d bytes: encode %5.2f ns, decode %5.2f ns", order, bytes,
+            encode / count, decode / count));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Keep-Tech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.TairaData;
+import com.gotokeep.keep.taira.annotation.ParamField;
+
+import java.util.List;
+
+/**
+ * one lap of a run, mixing bit-packed, varint, length-prefixed and tail fields so no field after the first
+ * variable-size one has a fixed offset
+ */
+public class Lap implements TairaData {
+
+    @ParamField(order = 0, bits = 1) private boolean paused;
+
+    @ParamField(order = 1, bits = 7) private int pace;
+
+    @ParamField(order = 2, encoding = ParamField.Encoding.VARINT) private int distance;
+
+    @ParamField(order = 3, encoding = ParamField.Encoding.ZIGZAG) private long elevation;
+
+    @ParamField(order = 4, prefix = 1) private String name;
+
+    @ParamField(order = 5, prefix = 2) private byte[] track;
+
+    @ParamField(order = 6, prefix = 1) private List<Short> heartRates;
+
+    @ParamField(order = 7) private String note;
+
+    public Lap() {}
+
+    Lap(boolean paused, int pace, int distance, long elevation, String name, byte[] track, List<Short> heartRates,
+        String note) {
+        this.paused = paused;
+        this.pace = pace;
+        this.distance = distance;
+        this.elevation = elevation;
+        this.name = name;
+        this.track = track;
+        this.heartRates = heartRates;
+        this.note = note;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public int getPace() {
+        return pace;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public long getElevation() {
+        return elevation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getTrack() {
+        return track;
+    }
+
+    public List<Short> getHeartRates() {
+        return heartRates;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
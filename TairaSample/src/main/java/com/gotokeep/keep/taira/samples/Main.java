@@ -36,7 +36,19 @@ public class Main {
     public static void main(String[] args) {
         Taira.DEBUG = true;
 
-        // Init object
+        Foo foo = createFoo();
+        System.out.println("fooObject: " + foo.toString());
+
+        // Taira serialize
+        taira(foo);
+        // Gson serialize
+        gson(foo);
+    }
+
+    /**
+     * Init a three-level nested sample object
+     */
+    static Foo createFoo() {
         Foo foo = new Foo();
         foo.setByteField((byte) 2);
         foo.setIntField(103);
@@ -60,13 +72,7 @@ public class Main {
         bar.setInnerArrayVal(bazArray);
         foo.setBarField(bar);
         foo.setIntListField(Arrays.asList(3, 5, 9));
-
-        System.out.println("fooObject: " + foo.toString());
-
-        // Taira serialize
-        taira(foo);
-        // Gson serialize
-        gson(foo);
+        return foo;
     }
 
     /**
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Keep-Tech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaProjection;
+import com.gotokeep.keep.taira.exception.TairaIllegalValueException;
+
+import java.util.Arrays;
+
+/**
+ * Check projections of a Lap against its full decode, then cut the encoded Lap at every length
+ *
+ * a cut before the tail field must fail with TairaIllegalValueException, a cut inside the ASCII tail must decode a
+ * shorter tail.
+ */
+public class ProjectionSample {
+
+    public static void main(String[] args) {
+        Lap lap = new Lap(true, 93, 1500, -42, "Lap 3", new byte[] { 1, 2, 3, 4, 5 },
+            Arrays.asList((short) 128, (short) 131, (short) 140), "easy pace, headwind");
+        byte[] data = Taira.DEFAULT.toBytes(lap);
+        Lap full = Taira.DEFAULT.fromBytes(data, Lap.class);
+
+        TairaProjection<Lap> tail = Taira.DEFAULT.projection(Lap.class, "note");
+        TairaProjection<Lap> mixed = Taira.DEFAULT.projection(Lap.class, "pace", "elevation", "heartRates");
+        Lap projected = mixed.fromBytes(data);
+        if (!full.getNote().equals(tail.fromBytes(data).getNote()) || projected.getPace() != full.getPace()
+            || projected.getElevation() != full.getElevation()
+            || !full.getHeartRates().equals(projected.getHeartRates()) || projected.getName() != null) {
+            throw new IllegalStateException("Projection differs from full decode");
+        }
+
+        int tailStart = data.length - full.getNote().length();
+        int rejected = 0;
+        for (int length = 1; length < data.length; length++) {
+            byte[] cut = Arrays.copyOf(data, length);
+            if (length < tailStart) {
+                expectTooShort(tail, cut);
+                expectTooShort(mixed, cut);
+                rejected++;
+            } else if (length > tailStart
+                && !full.getNote().substring(0, length - tailStart).equals(tail.fromBytes(cut).getNote())) {
+                throw new IllegalStateException("Cut tail at [" + length + "] decoded wrong");
+            }
+        }
+        System.out.println("Projections match full decode, " + rejected + " of " + (data.length - 1)
+            + " cuts rejected before tail");
+    }
+
+    private static void expectTooShort(TairaProjection<Lap> projection, byte[] cut) {
+        try {
+            projection.fromBytes(cut);
+        } catch (TairaIllegalValueException e) {
+            return;
+        }
+        throw new IllegalStateException("Cut at [" + cut.length + "] decoded without error");
+    }
+}
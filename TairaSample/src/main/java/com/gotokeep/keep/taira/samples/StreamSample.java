@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 Keep, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.gotokeep.keep.taira.samples;
+
+import com.gotokeep.keep.taira.Taira;
+import com.gotokeep.keep.taira.TairaReader;
+import com.gotokeep.keep.taira.TairaWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Stream length-prefixed Foo records through a file channel and read them back
+ *
+ * every record carries a different tail String, so frames have different sizes.
+ */
+public class StreamSample {
+
+    private static final int RECORDS = 200000;
+
+    public static void main(String[] args) throws IOException {
+        Foo foo = Main.createFoo();
+        String remains = foo.getRemainsStringField();
+        File file = File.createTempFile("taira", ".log");
+        file.deleteOnExit();
+
+        long startTime = System.nanoTime();
+        TairaWriter writer = new TairaWriter(Taira.DEFAULT, new FileOutputStream(file).getChannel());
+        try {
+            for (int i = 0; i < RECORDS; i++) {
+                foo.setIntField(i % 30000);
+                foo.setRemainsStringField(remains + i);
+                writer.write(foo);
+            }
+        } finally {
+            writer.close();
+        }
+        long writeTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        int count = 0;
+        TairaReader<Foo> reader = new TairaReader<Foo>(Taira.DEFAULT, new FileInputStream(file).getChannel(),
+            Foo.class);
+        try {
+            Foo record;
+            while ((record = reader.read()) != null) {
+                if (record.getIntField() != count % 30000 || !(remains + count).equals(
+                    record.getRemainsStringField())) {
+                    throw new IllegalStateException("Corrupted record " + count);
+                }
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        long readTime = System.nanoTime() - startTime;
+
+        if (count != RECORDS) {
+            throw new IllegalStateException("Read " + count + " records, expected " + RECORDS);
+        }
+        System.out.println(String.format("records: %d, bytes: %d, write records/s: %.0f, read records/s: %.0f",
+            count, file.length(), RECORDS * 1e9 / writeTime, RECORDS * 1e9 / readTime));
+    }
+}